@@ -9,6 +9,7 @@ import com.samourai.whirlpool.server.beans.export.ActivityCsv;
 import com.samourai.whirlpool.server.config.WhirlpoolServerConfig;
 import com.samourai.whirlpool.server.services.BackendService;
 import com.samourai.whirlpool.server.services.ExportService;
+import com.samourai.whirlpool.server.services.MixRollupService;
 import com.samourai.whirlpool.server.services.rpc.RpcClientService;
 import com.samourai.whirlpool.server.utils.Utils;
 import com.samourai.xmanager.client.XManagerClient;
@@ -39,6 +40,8 @@ public class Application extends ServerApplication {
 
   @Autowired private BackendService backendService;
 
+  @Autowired private MixRollupService mixRollupService;
+
   public static void main(String[] args) {
     SpringApplication.run(Application.class, args);
   }
@@ -59,6 +62,9 @@ public class Application extends ServerApplication {
     MinerFee minerFee = backendService.fetchMinerFee();
     log.info("Backend minerFee: " + minerFee._getMap());
 
+    // load mix stats (up to 1 year of mixs)
+    mixRollupService.loadMixRollups();
+
     // log activity
     ActivityCsv activityCsv = new ActivityCsv("STARTUP", null, null, null, null, null);
     exportService.exportActivity(activityCsv);
@@ -7,26 +7,50 @@ import com.samourai.whirlpool.server.exceptions.ServerErrorCode;
 import com.samourai.whirlpool.server.utils.Utils;
 import java.lang.invoke.MethodHandles;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Predicate;
-import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 public class InputPool {
   private static final Logger log = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
-  private Map<String, RegisteredInput> inputsById;
+  private static final int RANDOM_PROBES = 8;
+
+  // array-backed set with swap-remove
+  private ArrayList<RegisteredInput> inputs;
+  private Map<String, Integer> slotsById;
+  private Map<String, RegisteredInput> inputsByUsername;
+  private TreeMap<Long, Map<String, RegisteredInput>> inputsByValue; // value -> inputId, or null
+  private int nbTor;
 
   public InputPool() {
-    this.inputsById = new ConcurrentHashMap<>();
+    this(false);
+  }
+
+  // indexByValue: for removeRandom(filter, minValue)
+  public InputPool(boolean indexByValue) {
+    this.inputs = new ArrayList<>();
+    this.slotsById = new HashMap<>();
+    this.inputsByUsername = new HashMap<>();
+    this.inputsByValue = indexByValue ? new TreeMap<>() : null;
+    this.nbTor = 0;
   }
 
   public synchronized void register(RegisteredInput registeredInput) throws NotifiableException {
     if (!hasInput(registeredInput.getOutPoint())) {
       String username = registeredInput.getUsername();
-      if (!findByUsername(username).isPresent()) {
+      if (!inputsByUsername.containsKey(username)) {
         String inputId = Utils.computeInputId(registeredInput.getOutPoint());
-        inputsById.put(inputId, registeredInput);
+        slotsById.put(inputId, inputs.size());
+        inputs.add(registeredInput);
+        inputsByUsername.put(username, registeredInput);
+        if (inputsByValue != null) {
+          inputsByValue
+              .computeIfAbsent(registeredInput.getOutPoint().getValue(), v -> new HashMap<>())
+              .put(inputId, registeredInput);
+        }
+        if (registeredInput.isTor()) {
+          nbTor++;
+        }
       } else {
         throw new NotifiableException(
             ServerErrorCode.INPUT_ALREADY_REGISTERED,
@@ -38,70 +62,153 @@ public class InputPool {
     }
   }
 
-  public Optional<RegisteredInput> findByUsername(String username) {
-    return inputsById
-        .values()
-        .parallelStream()
-        .filter(registeredInput -> registeredInput.getUsername().equals(username))
-        .findFirst();
+  public synchronized Optional<RegisteredInput> findByUsername(String username) {
+    return Optional.ofNullable(inputsByUsername.get(username));
   }
 
-  public synchronized Optional<RegisteredInput> removeRandom(
-      Predicate<Map.Entry<String, RegisteredInput>> filter) {
-    List<String> eligibleInputIds =
-        inputsById
-            .entrySet()
-            .parallelStream()
-            .filter(filter)
-            .map(entry -> entry.getKey())
-            .collect(Collectors.toList());
-    return removeRandom(eligibleInputIds);
+  public synchronized Optional<RegisteredInput> removeRandom(Predicate<RegisteredInput> filter) {
+    int size = inputs.size();
+    if (size == 0) {
+      return Optional.empty();
+    }
+
+    // random probes: O(1) when most inputs are eligible
+    for (int i = 0; i < Math.min(RANDOM_PROBES, size); i++) {
+      int slot = Utils.getRandomInt(size);
+      if (filter.test(inputs.get(slot))) {
+        return Optional.of(removeSlot(slot));
+      }
+    }
+
+    // fallback: uniform pick among eligible inputs (reservoir sampling, no allocation)
+    int nbEligible = 0;
+    int randomSlot = -1;
+    for (int slot = 0; slot < size; slot++) {
+      if (filter.test(inputs.get(slot))) {
+        nbEligible++;
+        if (Utils.getRandomInt(nbEligible) == 0) {
+          randomSlot = slot;
+        }
+      }
+    }
+    if (randomSlot < 0) {
+      return Optional.empty();
+    }
+    return Optional.of(removeSlot(randomSlot));
   }
 
-  private synchronized Optional<RegisteredInput> removeRandom(List<String> eligibleInputIds) {
-    if (!eligibleInputIds.isEmpty()) {
-      String randomInputId = Utils.getRandomEntry(eligibleInputIds);
-      RegisteredInput registeredInput = inputsById.remove(randomInputId);
-      return Optional.of(registeredInput);
+  /** Remove a random input matching filter, among inputs with value >= minValue. */
+  public synchronized Optional<RegisteredInput> removeRandom(
+      Predicate<RegisteredInput> filter, long minValue) {
+    Predicate<RegisteredInput> filterValue =
+        input -> input.getOutPoint().getValue() >= minValue && filter.test(input);
+    if (inputsByValue == null) {
+      return removeRandom(filterValue); // not indexed by value
+    }
+    int size = inputs.size();
+    if (size == 0) {
+      return Optional.empty();
     }
-    return Optional.empty();
+
+    // random probes: O(1) when most inputs are eligible
+    for (int i = 0; i < Math.min(RANDOM_PROBES, size); i++) {
+      int slot = Utils.getRandomInt(size);
+      if (filterValue.test(inputs.get(slot))) {
+        return Optional.of(removeSlot(slot));
+      }
+    }
+
+    // fallback: uniform pick among eligible inputs, skipping lower values (reservoir sampling)
+    int nbEligible = 0;
+    RegisteredInput randomInput = null;
+    for (Map<String, RegisteredInput> inputsForValue :
+        inputsByValue.tailMap(minValue, true).values()) {
+      for (RegisteredInput registeredInput : inputsForValue.values()) {
+        if (filter.test(registeredInput)) {
+          nbEligible++;
+          if (Utils.getRandomInt(nbEligible) == 0) {
+            randomInput = registeredInput;
+          }
+        }
+      }
+    }
+    if (randomInput == null) {
+      return Optional.empty();
+    }
+    return Optional.of(removeInput(randomInput));
+  }
+
+  private RegisteredInput removeInput(RegisteredInput registeredInput) {
+    return removeSlot(slotsById.get(Utils.computeInputId(registeredInput.getOutPoint())));
   }
 
   public synchronized Optional<RegisteredInput> removeByUsername(String username) {
-    Optional<RegisteredInput> inputByUsername = findByUsername(username);
-    if (inputByUsername.isPresent()) {
-      String inputId = Utils.computeInputId(inputByUsername.get().getOutPoint());
-      inputsById.remove(inputId);
+    RegisteredInput inputByUsername = inputsByUsername.get(username);
+    if (inputByUsername != null) {
+      removeInput(inputByUsername);
     }
-    return inputByUsername;
+    return Optional.ofNullable(inputByUsername);
+  }
+
+  private RegisteredInput removeSlot(int slot) {
+    // swap last input into removed slot
+    RegisteredInput registeredInput = inputs.get(slot);
+    int lastSlot = inputs.size() - 1;
+    RegisteredInput lastInput = inputs.remove(lastSlot);
+    if (slot != lastSlot) {
+      inputs.set(slot, lastInput);
+      slotsById.put(Utils.computeInputId(lastInput.getOutPoint()), slot);
+    }
+
+    String inputId = Utils.computeInputId(registeredInput.getOutPoint());
+    slotsById.remove(inputId);
+    inputsByUsername.remove(registeredInput.getUsername());
+    if (inputsByValue != null) {
+      long value = registeredInput.getOutPoint().getValue();
+      Map<String, RegisteredInput> inputsForValue = inputsByValue.get(value);
+      inputsForValue.remove(inputId);
+      if (inputsForValue.isEmpty()) {
+        inputsByValue.remove(value);
+      }
+    }
+    if (registeredInput.isTor()) {
+      nbTor--;
+    }
+    return registeredInput;
   }
 
   public synchronized Collection<RegisteredInput> clear() {
-    Collection<RegisteredInput> inputs =
-        new LinkedList<>(inputsById.values()); // copy to avoid getting cleared next!
-    inputsById.clear();
-    return inputs;
+    Collection<RegisteredInput> removedInputs =
+        new LinkedList<>(inputs); // copy to avoid getting cleared next!
+    inputs.clear();
+    slotsById.clear();
+    inputsByUsername.clear();
+    if (inputsByValue != null) {
+      inputsByValue.clear();
+    }
+    nbTor = 0;
+    return removedInputs;
   }
 
-  public void resetLastUserHash() {
-    inputsById.values().forEach(registedInput -> registedInput.setLastUserHash(null));
+  public synchronized void resetLastUserHash() {
+    inputs.forEach(registedInput -> registedInput.setLastUserHash(null));
   }
 
   // ------------
 
-  public boolean hasInput(TxOutPoint outPoint) {
-    return inputsById.containsKey(Utils.computeInputId(outPoint));
+  public synchronized boolean hasInput(TxOutPoint outPoint) {
+    return slotsById.containsKey(Utils.computeInputId(outPoint));
   }
 
-  public boolean hasInputs() {
-    return !inputsById.isEmpty();
+  public synchronized boolean hasInputs() {
+    return !inputs.isEmpty();
   }
 
-  public int getSize() {
-    return inputsById.size();
+  public synchronized int getSize() {
+    return inputs.size();
   }
 
-  public int getSizeByTor(boolean tor) {
-    return (int) inputsById.values().parallelStream().filter(input -> input.isTor() == tor).count();
+  public synchronized int getSizeByTor(boolean tor) {
+    return tor ? nbTor : inputs.size() - nbTor;
   }
 }
@@ -0,0 +1,41 @@
+package com.samourai.whirlpool.server.beans;
+
+import java.util.List;
+import java.util.function.Function;
+
+/** Page fetched by seeking below an id, newest first, without counting rows. */
+public class KeysetPage<T> {
+  private List<T> content;
+  private int size;
+  private Long beforeId; // null for first page
+  private Long nextBeforeId; // null for last page
+
+  // rows: up to size+1 rows, the extra one telling that a next page exists
+  public KeysetPage(List<T> rows, int size, Long beforeId, Function<T, Long> getId) {
+    boolean hasNext = rows.size() > size;
+    this.content = hasNext ? rows.subList(0, size) : rows;
+    this.size = size;
+    this.beforeId = beforeId;
+    this.nextBeforeId = hasNext ? getId.apply(content.get(size - 1)) : null;
+  }
+
+  public List<T> getContent() {
+    return content;
+  }
+
+  public int getSize() {
+    return size;
+  }
+
+  public boolean isFirst() {
+    return beforeId == null;
+  }
+
+  public boolean hasNext() {
+    return nextBeforeId != null;
+  }
+
+  public Long getNextBeforeId() {
+    return nextBeforeId;
+  }
+}
@@ -37,6 +37,16 @@ public class Mix {
   private MixStatus mixStatus;
   private InputPool confirmingInputs;
   private Map<String, ConfirmedInput> inputsById;
+  // aggregates maintained by registerInput/unregisterInput
+  private volatile int nbInputsMustMix;
+  private volatile int nbInputsLiquidities;
+  private volatile long minerFeeAccumulated;
+  // indexes maintained by registerInput/unregisterInput
+  private Map<String, List<ConfirmedInput>> inputsByUsername; // copy-on-write lists
+  private Map<String, ConfirmedInput> inputsByAddress; // lowercase address
+  private Map<String, Integer> nbInputsByUserHash;
+  private Map<String, Integer> nbInputsByTxid;
+  private String inputsHash; // computed once inputs are frozen on REGISTER_OUTPUT
 
   private Set<byte[]> bordereaux;
   private Set<String> receiveAddresses;
@@ -45,14 +55,17 @@ public class Mix {
   private Map<String, Boolean> signed;
 
   private Transaction tx;
+  private MixSigningContext signingContext; // computed on SIGNING
+  private volatile boolean broadcasting; // fully signed, tx being broadcast without pool lock
   private FailReason failReason;
   private String failInfo;
 
-  public Mix(String mixId, Pool pool, CryptoService cryptoService) {
+  public Mix(
+      String mixId, Pool pool, AsymmetricCipherKeyPair keyPair, CryptoService cryptoService) {
     this.mixTO = null;
     this.created = null;
     this.mixId = mixId;
-    this.keyPair = cryptoService.generateKeyPair();
+    this.keyPair = keyPair;
     try {
       this.publicKey = cryptoService.computePublicKey(keyPair).getEncoded();
     } catch (Exception e) {
@@ -66,6 +79,14 @@ public class Mix {
     this.mixStatus = MixStatus.CONFIRM_INPUT;
     this.confirmingInputs = new InputPool();
     this.inputsById = new ConcurrentHashMap<>();
+    this.nbInputsMustMix = 0;
+    this.nbInputsLiquidities = 0;
+    this.minerFeeAccumulated = 0;
+    this.inputsByUsername = new ConcurrentHashMap<>();
+    this.inputsByAddress = new ConcurrentHashMap<>();
+    this.nbInputsByUserHash = new ConcurrentHashMap<>();
+    this.nbInputsByTxid = new ConcurrentHashMap<>();
+    this.inputsHash = null;
 
     this.bordereaux = new HashSet<>();
     this.receiveAddresses = new HashSet<>();
@@ -74,6 +95,8 @@ public class Mix {
     this.signed = new ConcurrentHashMap<>();
 
     this.tx = null;
+    this.signingContext = null;
+    this.broadcasting = false;
     this.failReason = null;
     this.failInfo = null;
   }
@@ -150,6 +173,10 @@ public class Mix {
   }
 
   public void setMixStatusAndTime(MixStatus mixStatus) {
+    if (MixStatus.REGISTER_OUTPUT.equals(mixStatus) && inputsHash == null) {
+      // inputs are now frozen
+      this.inputsHash = computeInputsHash();
+    }
     this.mixStatus = mixStatus;
     timeStatus.put(mixStatus, new Timestamp(System.currentTimeMillis()));
   }
@@ -188,23 +215,24 @@ public class Mix {
   }
 
   public Optional<ConfirmedInput> getInputByUsername(String username) {
-    return inputsById.values().stream()
-        .filter(
-            confirmedInput -> confirmedInput.getRegisteredInput().getUsername().equals(username))
-        .findFirst();
+    return getInputsByUsername(username).stream().findFirst();
+  }
+
+  public Collection<ConfirmedInput> getInputsByUsername(String username) {
+    // usually one input per username, but not enforced
+    return inputsByUsername.getOrDefault(username, Collections.emptyList());
   }
 
   public Optional<ConfirmedInput> getInputByAddress(String address) {
-    return inputsById.values().stream()
-        .filter(
-            confirmedInput ->
-                confirmedInput
-                    .getRegisteredInput()
-                    .getOutPoint()
-                    .getToAddress()
-                    .toLowerCase()
-                    .equals(address.toLowerCase()))
-        .findFirst();
+    return Optional.ofNullable(inputsByAddress.get(address.toLowerCase()));
+  }
+
+  public int getNbInputsByUserHash(String userHash) {
+    return nbInputsByUserHash.getOrDefault(userHash, 0);
+  }
+
+  public int getNbInputsByTxid(String txid) {
+    return nbInputsByTxid.getOrDefault(txid, 0);
   }
 
   public int getNbInputs() {
@@ -212,27 +240,15 @@ public class Mix {
   }
 
   public int getNbInputsMustMix() {
-    return (int)
-        getInputs()
-            .parallelStream()
-            .filter(input -> !input.getRegisteredInput().isLiquidity())
-            .count();
+    return nbInputsMustMix;
   }
 
   public int getNbInputsLiquidities() {
-    return (int)
-        getInputs()
-            .parallelStream()
-            .filter(input -> input.getRegisteredInput().isLiquidity())
-            .count();
+    return nbInputsLiquidities;
   }
 
   public long computeMinerFeeAccumulated() {
-    return getInputs()
-        .parallelStream()
-        .filter(input -> !input.getRegisteredInput().isLiquidity())
-        .map(input -> input.getRegisteredInput().computeMinerFees(pool))
-        .reduce(0L, Long::sum);
+    return minerFeeAccumulated;
   }
 
   public synchronized void registerInput(ConfirmedInput confirmedInput)
@@ -243,6 +259,7 @@ public class Mix {
           ServerErrorCode.INPUT_ALREADY_REGISTERED, "input already registered");
     }
     inputsById.put(inputId, confirmedInput);
+    onInputsChanged(confirmedInput, 1);
   }
 
   public synchronized void unregisterInput(ConfirmedInput confirmedInput) {
@@ -253,7 +270,57 @@ public class Mix {
             + confirmedInput.getRegisteredInput().getUsername()
             + " unregistering a CONFIRMED input");
     String inputId = Utils.computeInputId(confirmedInput.getRegisteredInput().getOutPoint());
-    inputsById.remove(inputId);
+    ConfirmedInput removed = inputsById.remove(inputId);
+    if (removed != null) {
+      onInputsChanged(removed, -1);
+    }
+  }
+
+  private void onInputsChanged(ConfirmedInput confirmedInput, int delta) {
+    // update aggregates & indexes (always called while holding the Mix monitor)
+    RegisteredInput registeredInput = confirmedInput.getRegisteredInput();
+    String username = registeredInput.getUsername();
+    String address = registeredInput.getOutPoint().getToAddress().toLowerCase();
+    if (delta > 0) {
+      inputsByUsername.compute(
+          username,
+          (u, inputs) -> {
+            List<ConfirmedInput> newInputs =
+                (inputs != null ? new ArrayList<>(inputs) : new ArrayList<>(1));
+            newInputs.add(confirmedInput);
+            return newInputs;
+          });
+      inputsByAddress.put(address, confirmedInput);
+    } else {
+      inputsByUsername.computeIfPresent(
+          username,
+          (u, inputs) -> {
+            List<ConfirmedInput> newInputs = new ArrayList<>(inputs);
+            newInputs.remove(confirmedInput);
+            return (newInputs.isEmpty() ? null : newInputs);
+          });
+      inputsByAddress.remove(address, confirmedInput);
+    }
+    if (confirmedInput.getUserHash() != null) {
+      updateCount(nbInputsByUserHash, confirmedInput.getUserHash(), delta);
+    }
+    updateCount(nbInputsByTxid, registeredInput.getOutPoint().getHash(), delta);
+
+    if (registeredInput.isLiquidity()) {
+      nbInputsLiquidities += delta;
+    } else {
+      nbInputsMustMix += delta;
+      minerFeeAccumulated += delta * registeredInput.computeMinerFees(pool);
+    }
+  }
+
+  private static void updateCount(Map<String, Integer> counts, String key, int delta) {
+    counts.compute(
+        key,
+        (k, count) -> {
+          int newCount = (count != null ? count : 0) + delta;
+          return newCount > 0 ? newCount : null;
+        });
   }
 
   public ConfirmedInput findInput(TxOutPoint outPoint) {
@@ -261,6 +328,9 @@ public class Mix {
   }
 
   public String computeInputsHash() {
+    if (inputsHash != null) {
+      return inputsHash;
+    }
     Collection<Utxo> inputs =
         getInputs()
             .parallelStream()
@@ -270,6 +340,10 @@ public class Mix {
     return WhirlpoolProtocol.computeInputsHash(inputs);
   }
 
+  public String getInputsHash() {
+    return inputsHash;
+  }
+
   public synchronized void registerOutput(String receiveAddress, byte[] bordereau) {
     receiveAddresses.add(receiveAddress);
     bordereaux.add(bordereau);
@@ -331,6 +405,14 @@ public class Mix {
     signed.put(username, true);
   }
 
+  public boolean isBroadcasting() {
+    return broadcasting;
+  }
+
+  public void setBroadcasting() {
+    this.broadcasting = true;
+  }
+
   public void setTx(Transaction tx) {
     this.tx = tx;
   }
@@ -339,6 +421,14 @@ public class Mix {
     return tx;
   }
 
+  public MixSigningContext getSigningContext() {
+    return signingContext;
+  }
+
+  public void setSigningContext(MixSigningContext signingContext) {
+    this.signingContext = signingContext;
+  }
+
   public void setFailReason(FailReason failReason) {
     this.failReason = failReason;
   }
@@ -384,13 +474,7 @@ public class Mix {
     removeConfirmingInputByUsername(username);
 
     // remove from confirmed inputs
-    List<ConfirmedInput> confirmedInputs =
-        getInputs()
-            .parallelStream()
-            .filter(
-                confirmedInput ->
-                    confirmedInput.getRegisteredInput().getUsername().equals(username))
-            .collect(Collectors.toList());
+    List<ConfirmedInput> confirmedInputs = new LinkedList<>(getInputsByUsername(username));
     if (!confirmedInputs.isEmpty()) {
       boolean mixAlreadyStarted = this.isAlreadyStarted();
       for (ConfirmedInput confirmedInput : confirmedInputs) {
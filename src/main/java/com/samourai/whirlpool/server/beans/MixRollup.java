@@ -0,0 +1,145 @@
+package com.samourai.whirlpool.server.beans;
+
+import com.samourai.whirlpool.protocol.websocket.notifications.MixStatus;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Aggregates of mixs finished in a time bucket. Anonymity set, fees and durations only count
+ * successful mixs, failures are counted by reason.
+ */
+public class MixRollup {
+  private static final int NB_DURATION_BINS = 80; // 4 bins per doubling, up to ~12 days
+
+  private String poolId; // null when merged across pools
+  private MixRollupPeriod period;
+  private long start;
+
+  private int nbSuccess;
+  private int nbFail;
+  private Map<FailReason, Integer> nbFailByReason;
+  private long sumAnonymitySet;
+  private long sumMustMix;
+  private long sumLiquidities;
+  private long sumFeesAmount;
+  private int[] mixDurationBins;
+
+  public MixRollup(String poolId, MixRollupPeriod period, long start) {
+    this.poolId = poolId;
+    this.period = period;
+    this.start = start;
+    this.nbSuccess = 0;
+    this.nbFail = 0;
+    this.nbFailByReason = new EnumMap<>(FailReason.class);
+    this.sumAnonymitySet = 0;
+    this.sumMustMix = 0;
+    this.sumLiquidities = 0;
+    this.sumFeesAmount = 0;
+    this.mixDurationBins = new int[NB_DURATION_BINS];
+  }
+
+  public void add(
+      MixStatus mixStatus,
+      FailReason failReason,
+      int anonymitySet,
+      int nbMustMix,
+      int nbLiquidities,
+      Long feesAmount,
+      int mixDuration) {
+    if (!MixStatus.SUCCESS.equals(mixStatus)) {
+      nbFail++;
+      if (failReason != null) {
+        nbFailByReason.merge(failReason, 1, Integer::sum);
+      }
+      return;
+    }
+    nbSuccess++;
+    sumAnonymitySet += anonymitySet;
+    sumMustMix += nbMustMix;
+    sumLiquidities += nbLiquidities;
+    sumFeesAmount += (feesAmount != null ? feesAmount : 0);
+    mixDurationBins[computeDurationBin(mixDuration)]++;
+  }
+
+  public void merge(MixRollup other) {
+    nbSuccess += other.nbSuccess;
+    nbFail += other.nbFail;
+    for (Map.Entry<FailReason, Integer> entry : other.nbFailByReason.entrySet()) {
+      nbFailByReason.merge(entry.getKey(), entry.getValue(), Integer::sum);
+    }
+    sumAnonymitySet += other.sumAnonymitySet;
+    sumMustMix += other.sumMustMix;
+    sumLiquidities += other.sumLiquidities;
+    sumFeesAmount += other.sumFeesAmount;
+    for (int i = 0; i < NB_DURATION_BINS; i++) {
+      mixDurationBins[i] += other.mixDurationBins[i];
+    }
+  }
+
+  public MixRollup copy() {
+    MixRollup copy = new MixRollup(poolId, period, start);
+    copy.merge(this);
+    return copy;
+  }
+
+  /** Approximate percentile of successful mix durations, in seconds (bin upper bound). */
+  public int computeMixDurationPercentile(double percentile) {
+    if (nbSuccess == 0) {
+      return 0;
+    }
+    long rank = Math.max(1, (long) Math.ceil(percentile * nbSuccess));
+    long count = 0;
+    for (int bin = 0; bin < NB_DURATION_BINS; bin++) {
+      count += mixDurationBins[bin];
+      if (count >= rank) {
+        return (int) Math.round(Math.pow(2, bin / 4.0)) - 1;
+      }
+    }
+    return (int) Math.round(Math.pow(2, (NB_DURATION_BINS - 1) / 4.0)) - 1;
+  }
+
+  private static int computeDurationBin(int mixDuration) {
+    double log2 = Math.log(Math.max(0, mixDuration) + 1) / Math.log(2);
+    return Math.min((int) Math.ceil(4 * log2), NB_DURATION_BINS - 1);
+  }
+
+  public String getPoolId() {
+    return poolId;
+  }
+
+  public MixRollupPeriod getPeriod() {
+    return period;
+  }
+
+  public long getStart() {
+    return start;
+  }
+
+  public int getNbSuccess() {
+    return nbSuccess;
+  }
+
+  public int getNbFail() {
+    return nbFail;
+  }
+
+  public Map<FailReason, Integer> getNbFailByReason() {
+    return nbFailByReason;
+  }
+
+  public long getSumAnonymitySet() {
+    return sumAnonymitySet;
+  }
+
+  public long getSumMustMix() {
+    return sumMustMix;
+  }
+
+  public long getSumLiquidities() {
+    return sumLiquidities;
+  }
+
+  public long getSumFeesAmount() {
+    return sumFeesAmount;
+  }
+}
@@ -0,0 +1,26 @@
+package com.samourai.whirlpool.server.beans;
+
+public enum MixRollupPeriod {
+  HOUR(3600000L, 14),
+  DAY(86400000L, 365);
+
+  private long durationMs;
+  private long retentionMs;
+
+  MixRollupPeriod(long durationMs, int retentionDays) {
+    this.durationMs = durationMs;
+    this.retentionMs = retentionDays * 86400000L;
+  }
+
+  public long computeStart(long time) {
+    return time - (time % durationMs); // UTC-aligned
+  }
+
+  public long getDurationMs() {
+    return durationMs;
+  }
+
+  public long getRetentionMs() {
+    return retentionMs;
+  }
+}
@@ -0,0 +1,124 @@
+package com.samourai.whirlpool.server.beans;
+
+import static org.bitcoinj.core.Utils.int64ToByteStreamLE;
+import static org.bitcoinj.core.Utils.sha256hash160;
+import static org.bitcoinj.core.Utils.uint32ToByteStreamLE;
+
+import com.samourai.whirlpool.server.utils.Utils;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import org.bitcoinj.core.ECKey;
+import org.bitcoinj.core.Sha256Hash;
+import org.bitcoinj.core.Transaction;
+import org.bitcoinj.core.TransactionInput;
+import org.bitcoinj.core.TransactionOutPoint;
+import org.bitcoinj.core.TransactionOutput;
+import org.bitcoinj.core.TransactionWitness;
+import org.bitcoinj.crypto.TransactionSignature;
+
+/**
+ * Signing state of a mix transaction, computed once on SIGNING: serialized tx, input indexes and
+ * BIP143 midstates (hashPrevouts, hashSequence, hashOutputs) shared by every input signature.
+ */
+public class MixSigningContext {
+  private static final int P2WPKH_SCRIPT_LENGTH = 22;
+
+  private byte[] txBytes;
+  private Map<String, Integer> inputIndexes;
+  private byte[][] outPoints;
+  private long[] sequences;
+  private long version;
+  private long lockTime;
+  private byte[] hashPrevouts;
+  private byte[] hashSequence;
+  private byte[] hashOutputs;
+
+  public MixSigningContext(Transaction tx) throws IOException {
+    this.txBytes = tx.bitcoinSerialize();
+    this.version = tx.getVersion();
+    this.lockTime = tx.getLockTime();
+
+    int nbInputs = tx.getInputs().size();
+    this.inputIndexes = new HashMap<>(nbInputs * 2);
+    this.outPoints = new byte[nbInputs][];
+    this.sequences = new long[nbInputs];
+    ByteArrayOutputStream prevouts = new ByteArrayOutputStream(nbInputs * 36);
+    ByteArrayOutputStream sequence = new ByteArrayOutputStream(nbInputs * 4);
+    for (int i = 0; i < nbInputs; i++) {
+      TransactionInput input = tx.getInput(i);
+      TransactionOutPoint outPoint = input.getOutpoint();
+      inputIndexes.put(Utils.computeInputId(outPoint.getHash().toString(), outPoint.getIndex()), i);
+      outPoints[i] = outPoint.bitcoinSerialize();
+      sequences[i] = input.getSequenceNumber();
+      prevouts.write(outPoints[i]);
+      uint32ToByteStreamLE(sequences[i], sequence);
+    }
+    this.hashPrevouts = Sha256Hash.hashTwice(prevouts.toByteArray());
+    this.hashSequence = Sha256Hash.hashTwice(sequence.toByteArray());
+
+    ByteArrayOutputStream outputs = new ByteArrayOutputStream();
+    for (TransactionOutput output : tx.getOutputs()) {
+      outputs.write(output.bitcoinSerialize());
+    }
+    this.hashOutputs = Sha256Hash.hashTwice(outputs.toByteArray());
+  }
+
+  public Integer findInputIndex(String utxoHash, long utxoIndex) {
+    return inputIndexes.get(Utils.computeInputId(utxoHash, utxoIndex));
+  }
+
+  /** Whether the input can be verified with {@link #verifyP2WPKH}. */
+  public static boolean isP2WPKH(byte[] scriptPubKey, TransactionWitness witness) {
+    return scriptPubKey.length == P2WPKH_SCRIPT_LENGTH
+        && scriptPubKey[0] == 0x00
+        && scriptPubKey[1] == 0x14
+        && witness.getPushCount() == 2;
+  }
+
+  /** Verify a SIGHASH_ALL P2WPKH input signature with cached BIP143 midstates. */
+  public boolean verifyP2WPKH(
+      int inputIndex, TransactionWitness witness, long value, byte[] scriptPubKey)
+      throws Exception {
+    byte[] sigBytes = witness.getPush(0);
+    byte[] pubKey = witness.getPush(1);
+
+    // pubKey should match scriptPubKey
+    byte[] pubKeyHash = Arrays.copyOfRange(scriptPubKey, 2, P2WPKH_SCRIPT_LENGTH);
+    if (!Arrays.equals(pubKeyHash, sha256hash160(pubKey))) {
+      return false;
+    }
+
+    TransactionSignature signature = TransactionSignature.decodeFromBitcoin(sigBytes, true, true);
+    if (signature.sighashFlags != Transaction.SigHash.ALL.value) {
+      return false;
+    }
+    Sha256Hash sigHash = computeSigHash(inputIndex, pubKeyHash, value, signature.sighashFlags);
+    return ECKey.fromPublicOnly(pubKey).verify(sigHash, signature);
+  }
+
+  private Sha256Hash computeSigHash(int inputIndex, byte[] pubKeyHash, long value, int sigHashType)
+      throws IOException {
+    ByteArrayOutputStream bos = new ByteArrayOutputStream(182);
+    uint32ToByteStreamLE(version, bos);
+    bos.write(hashPrevouts);
+    bos.write(hashSequence);
+    bos.write(outPoints[inputIndex]);
+    // scriptCode: OP_DUP OP_HASH160 <pubKeyHash> OP_EQUALVERIFY OP_CHECKSIG
+    bos.write(new byte[] {0x19, 0x76, (byte) 0xa9, 0x14});
+    bos.write(pubKeyHash);
+    bos.write(new byte[] {(byte) 0x88, (byte) 0xac});
+    int64ToByteStreamLE(value, bos);
+    uint32ToByteStreamLE(sequences[inputIndex], bos);
+    bos.write(hashOutputs);
+    uint32ToByteStreamLE(lockTime, bos);
+    uint32ToByteStreamLE(sigHashType, bos);
+    return Sha256Hash.twiceOf(bos.toByteArray());
+  }
+
+  public byte[] getTxBytes() {
+    return txBytes;
+  }
+}
@@ -0,0 +1,25 @@
+package com.samourai.whirlpool.server.beans;
+
+/** Why a queued input can or cannot join a mix right now. */
+public enum MixableReason {
+  MIXABLE(null),
+  MIX_STARTED("Mix already started"),
+  MIX_FULL("Current mix is full"),
+  MIX_FULL_LIQUIDITY("Current mix is full for liquidity"),
+  MIX_FULL_MUSTMIX("Current mix is full for mustMix"),
+  INSUFFICIENT_MINER_FEE("Not enough minerFee for last mustMix slot"),
+  SAME_USER_HASH("Your wallet already registered for this mix"),
+  SAME_TX_HASH("Current mix is full for inputs with same hash"),
+  SAME_ADDRESS("Current mix is full for inputs with same address"),
+  ALREADY_CONFIRMED("Input already confirmed");
+
+  private String message;
+
+  MixableReason(String message) {
+    this.message = message;
+  }
+
+  public String getMessage() {
+    return message;
+  }
+}
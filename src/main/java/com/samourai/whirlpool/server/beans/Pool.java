@@ -1,6 +1,7 @@
 package com.samourai.whirlpool.server.beans;
 
 import com.samourai.whirlpool.protocol.WhirlpoolProtocol;
+import com.samourai.whirlpool.server.utils.MonitoredLock;
 
 public class Pool {
   private String poolId;
@@ -15,6 +16,7 @@ public class Pool {
   private Mix currentMix;
   private InputPool mustMixQueue;
   private InputPool liquidityQueue;
+  private MonitoredLock lock; // guards currentMix and queues
 
   public Pool(
       String poolId,
@@ -34,8 +36,9 @@ public class Pool {
     this.tx0MaxOutputs = tx0MaxOutputs;
     this.minerFee = minerFee;
 
-    this.mustMixQueue = new InputPool();
+    this.mustMixQueue = new InputPool(true); // indexed by value for removeRandom(minValue)
     this.liquidityQueue = new InputPool();
+    this.lock = new MonitoredLock();
   }
 
   public boolean checkInputBalance(long inputBalance, boolean liquidity) {
@@ -127,4 +130,8 @@ public class Pool {
   public PoolMinerFee getMinerFee() {
     return minerFee;
   }
+
+  public MonitoredLock getLock() {
+    return lock;
+  }
 }
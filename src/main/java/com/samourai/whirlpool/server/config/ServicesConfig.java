@@ -18,22 +18,30 @@ import com.samourai.whirlpool.protocol.feeOpReturn.FeeOpReturnImplV0;
 import com.samourai.whirlpool.protocol.feeOpReturn.FeeOpReturnImplV1;
 import com.samourai.whirlpool.protocol.util.XorMask;
 import com.samourai.whirlpool.server.services.JavaHttpClientService;
+import com.samourai.whirlpool.server.services.MetricService;
 import com.samourai.xmanager.client.XManagerClient;
 import java.lang.invoke.MethodHandles;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
 import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 @Configuration
 @EnableCaching
 @EnableScheduling
 public class ServicesConfig extends ServerServicesConfig {
   private static final Logger log = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+  private static final long TASK_EXECUTOR_RETRY_DELAY = 100; // ms
 
   protected WhirlpoolServerConfig whirlpoolServerConfig;
 
@@ -43,8 +51,74 @@ public class ServicesConfig extends ServerServicesConfig {
   }
 
   @Bean
-  TaskExecutor taskExecutor() {
-    return new SimpleAsyncTaskExecutor();
+  TaskExecutor taskExecutor(MetricService metricService) {
+    WhirlpoolServerConfig.TaskExecutorConfig config = whirlpoolServerConfig.getTaskExecutor();
+    if (config.isVirtualThreads()) {
+      try {
+        // JDK 21+ only, resolved at runtime as we still build for Java 8
+        ExecutorService executorService =
+            (ExecutorService)
+                Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        log.info("taskExecutor: using virtual threads");
+        TaskExecutorAdapter taskExecutor = new TaskExecutorAdapter(executorService);
+        AtomicInteger nbActiveTasks = new AtomicInteger();
+        taskExecutor.setTaskDecorator(
+            runnable ->
+                () -> {
+                  nbActiveTasks.incrementAndGet();
+                  try {
+                    runnable.run();
+                  } finally {
+                    nbActiveTasks.decrementAndGet();
+                  }
+                });
+        metricService.manageVirtualTaskExecutor(nbActiveTasks);
+        return taskExecutor;
+      } catch (Exception e) {
+        log.warn("taskExecutor: virtual threads not supported by this JVM, using thread pool");
+      }
+    }
+
+    ThreadPoolTaskExecutor taskExecutor = new ThreadPoolTaskExecutor();
+    taskExecutor.setCorePoolSize(config.getPoolSize());
+    taskExecutor.setMaxPoolSize(config.getPoolSize());
+    taskExecutor.setQueueCapacity(config.getQueueCapacity());
+    taskExecutor.setThreadNamePrefix("taskExecutor-");
+    ScheduledExecutorService retryScheduler =
+        Executors.newSingleThreadScheduledExecutor(
+            runnable -> {
+              Thread thread = new Thread(runnable, "taskExecutorRetry");
+              thread.setDaemon(true);
+              return thread;
+            });
+    // retry backlog is bounded like the queue itself
+    int maxPendingRetries = config.getQueueCapacity();
+    AtomicInteger nbPendingRetries = new AtomicInteger();
+    taskExecutor.setRejectedExecutionHandler(
+        (runnable, executor) -> {
+          // queue full => resubmit later rather than dropping messages, but never run in caller
+          // thread which may hold a pool lock
+          metricService.onTaskExecutorRejected();
+          if (executor.isShutdown()) {
+            return;
+          }
+          if (nbPendingRetries.incrementAndGet() > maxPendingRetries) {
+            nbPendingRetries.decrementAndGet();
+            metricService.onTaskExecutorDropped();
+            log.error("taskExecutor: retry backlog full (" + maxPendingRetries + "), task dropped");
+            return;
+          }
+          retryScheduler.schedule(
+              () -> {
+                nbPendingRetries.decrementAndGet();
+                executor.execute(runnable);
+              },
+              TASK_EXECUTOR_RETRY_DELAY,
+              TimeUnit.MILLISECONDS);
+        });
+    taskExecutor.initialize();
+    metricService.manageTaskExecutor(taskExecutor.getThreadPoolExecutor());
+    return taskExecutor;
   }
 
   @Bean
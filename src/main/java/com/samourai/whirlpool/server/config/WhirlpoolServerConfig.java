@@ -40,6 +40,8 @@ public class WhirlpoolServerConfig extends ServerConfig {
   private RegisterOutputConfig registerOutput;
   private SigningConfig signing;
   private RevealOutputConfig revealOutput;
+  private KeyPairPoolConfig keyPairPool;
+  private TaskExecutorConfig taskExecutor;
   private BanConfig ban;
   private ExportConfig export;
   private PartnerConfig[] partners;
@@ -141,6 +143,22 @@ public class WhirlpoolServerConfig extends ServerConfig {
     this.registerOutput = registerOutput;
   }
 
+  public KeyPairPoolConfig getKeyPairPool() {
+    return keyPairPool;
+  }
+
+  public void setKeyPairPool(KeyPairPoolConfig keyPairPool) {
+    this.keyPairPool = keyPairPool;
+  }
+
+  public TaskExecutorConfig getTaskExecutor() {
+    return taskExecutor;
+  }
+
+  public void setTaskExecutor(TaskExecutorConfig taskExecutor) {
+    this.taskExecutor = taskExecutor;
+  }
+
   public SigningConfig getSigning() {
     return signing;
   }
@@ -211,6 +229,9 @@ public class WhirlpoolServerConfig extends ServerConfig {
     private int maxInputsSameHash;
     private int maxInputsSameUserHash;
     private long confirmInterval;
+    private int provenanceCacheSize;
+    private int provenanceCacheTtl;
+    private int provenanceRejectedCacheTtl;
 
     public int getMinConfirmationsMustMix() {
       return minConfirmationsMustMix;
@@ -251,6 +272,30 @@ public class WhirlpoolServerConfig extends ServerConfig {
     public void setConfirmInterval(long confirmInterval) {
       this.confirmInterval = confirmInterval;
     }
+
+    public int getProvenanceCacheSize() {
+      return provenanceCacheSize;
+    }
+
+    public void setProvenanceCacheSize(int provenanceCacheSize) {
+      this.provenanceCacheSize = provenanceCacheSize;
+    }
+
+    public int getProvenanceCacheTtl() {
+      return provenanceCacheTtl;
+    }
+
+    public void setProvenanceCacheTtl(int provenanceCacheTtl) {
+      this.provenanceCacheTtl = provenanceCacheTtl;
+    }
+
+    public int getProvenanceRejectedCacheTtl() {
+      return provenanceRejectedCacheTtl;
+    }
+
+    public void setProvenanceRejectedCacheTtl(int provenanceRejectedCacheTtl) {
+      this.provenanceRejectedCacheTtl = provenanceRejectedCacheTtl;
+    }
   }
 
   public static class RegisterOutputConfig {
@@ -265,6 +310,48 @@ public class WhirlpoolServerConfig extends ServerConfig {
     }
   }
 
+  public static class KeyPairPoolConfig {
+    private int depth;
+
+    public int getDepth() {
+      return depth;
+    }
+
+    public void setDepth(int depth) {
+      this.depth = depth;
+    }
+  }
+
+  public static class TaskExecutorConfig {
+    private int poolSize;
+    private int queueCapacity;
+    private boolean virtualThreads;
+
+    public int getPoolSize() {
+      return poolSize;
+    }
+
+    public void setPoolSize(int poolSize) {
+      this.poolSize = poolSize;
+    }
+
+    public int getQueueCapacity() {
+      return queueCapacity;
+    }
+
+    public void setQueueCapacity(int queueCapacity) {
+      this.queueCapacity = queueCapacity;
+    }
+
+    public boolean isVirtualThreads() {
+      return virtualThreads;
+    }
+
+    public void setVirtualThreads(boolean virtualThreads) {
+      this.virtualThreads = virtualThreads;
+    }
+  }
+
   public static class SigningConfig {
     private int timeout;
 
@@ -524,6 +611,8 @@ public class WhirlpoolServerConfig extends ServerConfig {
     private String password;
     private boolean mockTxBroadcast;
     private int blockHeightMaxSpread;
+    private int txCacheSize;
+    private int txCacheTtl;
 
     public String getProtocol() {
       return protocol;
@@ -580,6 +669,22 @@ public class WhirlpoolServerConfig extends ServerConfig {
     public void setBlockHeightMaxSpread(int blockHeightMaxSpread) {
       this.blockHeightMaxSpread = blockHeightMaxSpread;
     }
+
+    public int getTxCacheSize() {
+      return txCacheSize;
+    }
+
+    public void setTxCacheSize(int txCacheSize) {
+      this.txCacheSize = txCacheSize;
+    }
+
+    public int getTxCacheTtl() {
+      return txCacheTtl;
+    }
+
+    public void setTxCacheTtl(int txCacheTtl) {
+      this.txCacheTtl = txCacheTtl;
+    }
   }
 
   public static class SamouraiFeeConfig {
@@ -587,6 +692,7 @@ public class WhirlpoolServerConfig extends ServerConfig {
     private SecretWalletConfig secretWallet; // for >= FeeOpReturnImplV1
     private Map<String, ScodeSamouraiFeeConfig> scodes = new HashMap<>(); // -32,768 to 32,767
     private Map<String, ScodeSamouraiFeeConfig> scodesUpperCase;
+    private int version = 0; // incremented on each change, for caches depending on fee config
 
     public void validate() throws Exception {
       for (Map.Entry<String, ScodeSamouraiFeeConfig> scodeEntry : scodes.entrySet()) {
@@ -603,6 +709,7 @@ public class WhirlpoolServerConfig extends ServerConfig {
 
     public void setSecretWalletV0(SecretWalletConfig secretWalletV0) {
       this.secretWalletV0 = secretWalletV0;
+      this.version++;
     }
 
     public SecretWalletConfig getSecretWallet() {
@@ -611,6 +718,7 @@ public class WhirlpoolServerConfig extends ServerConfig {
 
     public void setSecretWallet(SecretWalletConfig secretWallet) {
       this.secretWallet = secretWallet;
+      this.version++;
     }
 
     public Map<String, ScodeSamouraiFeeConfig> getScodes() {
@@ -626,6 +734,11 @@ public class WhirlpoolServerConfig extends ServerConfig {
     public void setScodes(Map<String, ScodeSamouraiFeeConfig> scodes) {
       this.scodes = scodes;
       this.scodesUpperCase = null;
+      this.version++;
+    }
+
+    public int getVersion() {
+      return version;
     }
   }
 
@@ -838,6 +951,15 @@ public class WhirlpoolServerConfig extends ServerConfig {
             + ", revealOutput="
             + String.valueOf(revealOutput.timeout);
     configInfo.put("timeouts", timeoutInfo);
+    configInfo.put("keyPairPool.depth", String.valueOf(keyPairPool.depth));
+    configInfo.put(
+        "taskExecutor",
+        "poolSize="
+            + taskExecutor.poolSize
+            + ", queueCapacity="
+            + taskExecutor.queueCapacity
+            + ", virtualThreads="
+            + taskExecutor.virtualThreads);
     configInfo.put("export.mixs", export.mixs.directory + " -> " + export.mixs.filename);
     configInfo.put(
         "export.activity", export.activity.directory + " -> " + export.activity.filename);
@@ -4,6 +4,7 @@ import com.samourai.javaserver.config.ServerServicesConfig;
 import com.samourai.javawsserver.config.JWSSConfig;
 import com.samourai.whirlpool.protocol.WhirlpoolEndpoint;
 import com.samourai.whirlpool.server.controllers.rest.DexConfigController;
+import com.samourai.whirlpool.server.controllers.rest.StatsController;
 import com.samourai.whirlpool.server.controllers.rest.SystemController;
 import com.samourai.whirlpool.server.controllers.web.*;
 import org.apache.commons.lang3.ArrayUtils;
@@ -28,6 +29,7 @@ public class WebSecurityConfig extends WebSecurityConfigurerAdapter {
       new String[] {
         StatusWebController.ENDPOINT,
         HistoryWebController.ENDPOINT,
+        HistoryWebController.ENDPOINT_RAW_TX,
         ConfigWebController.ENDPOINT,
         BanWebController.ENDPOINT,
         SystemWebController.ENDPOINT,
@@ -45,6 +47,7 @@ public class WebSecurityConfig extends WebSecurityConfigurerAdapter {
         WhirlpoolEndpoint.REST_TX0_PUSH,
         WhirlpoolEndpoint.REST_PREFIX + "tx0Notify", // @deprecated
         SystemController.ENDPOINT_HEALTH,
+        StatsController.ENDPOINT_STATS_MIXS,
         DexConfigController.ENDPOINT_DEXCONFIG
       };
 
@@ -0,0 +1,55 @@
+package com.samourai.whirlpool.server.controllers.rest;
+
+import com.samourai.whirlpool.protocol.WhirlpoolEndpoint;
+import com.samourai.whirlpool.server.beans.MixRollup;
+import com.samourai.whirlpool.server.beans.MixRollupPeriod;
+import com.samourai.whirlpool.server.controllers.rest.beans.MixStatsResponse;
+import com.samourai.whirlpool.server.exceptions.IllegalInputException;
+import com.samourai.whirlpool.server.exceptions.ServerErrorCode;
+import com.samourai.whirlpool.server.services.MixRollupService;
+import java.lang.invoke.MethodHandles;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+public class StatsController extends AbstractRestController {
+  private static final Logger log = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+  public static final String ENDPOINT_STATS_MIXS = WhirlpoolEndpoint.REST_PREFIX + "stats/mixs";
+  private static final int PAGE_SIZE_MAX = 1000;
+
+  private MixRollupService mixRollupService;
+
+  @Autowired
+  public StatsController(MixRollupService mixRollupService) {
+    this.mixRollupService = mixRollupService;
+  }
+
+  @RequestMapping(value = ENDPOINT_STATS_MIXS, method = RequestMethod.GET)
+  public MixStatsResponse mixs(
+      @RequestParam(value = "poolId", required = false) String poolId,
+      @RequestParam(value = "period", defaultValue = "hour") String periodStr,
+      @RequestParam(value = "page", defaultValue = "0") int page,
+      @RequestParam(value = "size", defaultValue = "100") int size)
+      throws Exception {
+    MixRollupPeriod period;
+    try {
+      period = MixRollupPeriod.valueOf(periodStr.toUpperCase());
+    } catch (IllegalArgumentException e) {
+      throw new IllegalInputException(ServerErrorCode.INVALID_ARGUMENT, "Invalid period");
+    }
+    if (page < 0 || size < 1 || size > PAGE_SIZE_MAX) {
+      throw new IllegalInputException(ServerErrorCode.INVALID_ARGUMENT, "Invalid page or size");
+    }
+
+    // O(buckets), whatever the number of mixs
+    List<MixRollup> mixRollups = mixRollupService.getMixRollups(poolId, period, page, size);
+    int nbBuckets = mixRollupService.getNbMixRollups(poolId, period);
+    return new MixStatsResponse(poolId, period.name(), page, size, nbBuckets, mixRollups);
+  }
+}
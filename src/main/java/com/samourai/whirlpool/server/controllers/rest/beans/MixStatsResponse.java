@@ -0,0 +1,59 @@
+package com.samourai.whirlpool.server.controllers.rest.beans;
+
+import com.samourai.whirlpool.server.beans.FailReason;
+import com.samourai.whirlpool.server.beans.MixRollup;
+import java.util.Collection;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+public class MixStatsResponse {
+  public String poolId; // null for all pools
+  public String period;
+  public int page;
+  public int size;
+  public int nbBuckets;
+  public Collection<MixStatsBucket> buckets;
+
+  public MixStatsResponse(
+      String poolId,
+      String period,
+      int page,
+      int size,
+      int nbBuckets,
+      Collection<MixRollup> mixRollups) {
+    this.poolId = poolId;
+    this.period = period;
+    this.page = page;
+    this.size = size;
+    this.nbBuckets = nbBuckets;
+    this.buckets = mixRollups.stream().map(r -> new MixStatsBucket(r)).collect(Collectors.toList());
+  }
+
+  public static class MixStatsBucket {
+    public long start;
+    public int nbSuccess;
+    public int nbFail;
+    public Map<FailReason, Integer> nbFailByReason;
+    public long sumAnonymitySet;
+    public long sumMustMix;
+    public long sumLiquidities;
+    public long sumFeesAmount;
+    public int mixDurationP50;
+    public int mixDurationP90;
+    public int mixDurationP99;
+
+    public MixStatsBucket(MixRollup mixRollup) {
+      this.start = mixRollup.getStart();
+      this.nbSuccess = mixRollup.getNbSuccess();
+      this.nbFail = mixRollup.getNbFail();
+      this.nbFailByReason = mixRollup.getNbFailByReason();
+      this.sumAnonymitySet = mixRollup.getSumAnonymitySet();
+      this.sumMustMix = mixRollup.getSumMustMix();
+      this.sumLiquidities = mixRollup.getSumLiquidities();
+      this.sumFeesAmount = mixRollup.getSumFeesAmount();
+      this.mixDurationP50 = mixRollup.computeMixDurationPercentile(0.5);
+      this.mixDurationP90 = mixRollup.computeMixDurationPercentile(0.9);
+      this.mixDurationP99 = mixRollup.computeMixDurationPercentile(0.99);
+    }
+  }
+}
@@ -1,29 +1,27 @@
 package com.samourai.whirlpool.server.controllers.web;
 
 import com.samourai.wallet.api.explorer.ExplorerApi;
+import com.samourai.whirlpool.server.beans.KeysetPage;
 import com.samourai.whirlpool.server.config.WhirlpoolServerConfig;
 import com.samourai.whirlpool.server.controllers.web.beans.WhirlpoolDashboardTemplateModel;
 import com.samourai.whirlpool.server.persistence.to.BanTO;
-import com.samourai.whirlpool.server.persistence.to.shared.EntityCreatedTO;
 import com.samourai.whirlpool.server.services.BanService;
 import java.lang.invoke.MethodHandles;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
-import org.springframework.data.web.PageableDefault;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
 
 @Controller
 public class BanWebController {
   private static final Logger log = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
   public static final String ENDPOINT = "/status/ban";
   private static final int PAGE_SIZE = 100;
+  private static final int PAGE_SIZE_MAX = 1000;
 
   private BanService banService;
   private WhirlpoolServerConfig serverConfig;
@@ -40,23 +38,23 @@ public class BanWebController {
   @RequestMapping(value = ENDPOINT, method = RequestMethod.GET)
   public String ban(
       Model model,
-      @PageableDefault(
-              size = PAGE_SIZE,
-              sort = EntityCreatedTO.CREATED,
-              direction = Sort.Direction.DESC)
-          Pageable pageable)
+      @RequestParam(value = "beforeId", required = false) Long beforeId,
+      @RequestParam(value = "size", defaultValue = "" + PAGE_SIZE) int size)
       throws Exception {
     new WhirlpoolDashboardTemplateModel(serverConfig, "ban").apply(model);
 
-    Page<BanTO> page = banService.findActiveBans(pageable);
+    // seek by id, without total count
+    size = Math.max(1, Math.min(size, PAGE_SIZE_MAX));
+    KeysetPage<BanTO> page = banService.findActiveBans(beforeId, size);
     model.addAttribute("page", page);
+    model.addAttribute("nbActiveBans", banService.getNbActiveBans());
     model.addAttribute("urlExplorer", explorerApi.getUrlTx());
     model.addAttribute("ENDPOINT", ENDPOINT);
     model.addAttribute("banConfig", serverConfig.getBan());
 
     // getters used in template
     if (false) {
-      for (BanTO banTO : page) {
+      for (BanTO banTO : page.getContent()) {
         banTO.computeBanMessage();
         banTO.getCreated();
         banTO.getExpiration();
@@ -66,6 +64,10 @@ public class BanWebController {
         serverConfig.getBan().getExpiration();
         serverConfig.getBan().getPeriod();
       }
+      page.isFirst();
+      page.hasNext();
+      page.getNextBeforeId();
+      page.getSize();
     }
     return "ban";
   }
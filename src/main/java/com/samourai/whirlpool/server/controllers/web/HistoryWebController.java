@@ -1,30 +1,31 @@
 package com.samourai.whirlpool.server.controllers.web;
 
 import com.samourai.wallet.api.explorer.ExplorerApi;
+import com.samourai.whirlpool.server.beans.KeysetPage;
 import com.samourai.whirlpool.server.config.WhirlpoolServerConfig;
 import com.samourai.whirlpool.server.controllers.web.beans.WhirlpoolDashboardTemplateModel;
-import com.samourai.whirlpool.server.persistence.to.MixLogTO;
-import com.samourai.whirlpool.server.persistence.to.MixTO;
-import com.samourai.whirlpool.server.persistence.to.shared.EntityCreatedUpdatedTO;
+import com.samourai.whirlpool.server.persistence.to.MixHistoryProjection;
 import com.samourai.whirlpool.server.services.DbService;
 import java.lang.invoke.MethodHandles;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
-import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
 
 @Controller
 public class HistoryWebController {
   private static final Logger log = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
   public static final String ENDPOINT = "/status/history";
+  public static final String ENDPOINT_RAW_TX = "/status/history/rawTx";
   private static final int PAGE_SIZE = 100;
+  private static final int PAGE_SIZE_MAX = 1000;
 
   private DbService dbService;
   private WhirlpoolServerConfig serverConfig;
@@ -41,37 +42,53 @@ public class HistoryWebController {
   @RequestMapping(value = ENDPOINT, method = RequestMethod.GET)
   public String history(
       Model model,
-      @PageableDefault(
-              size = PAGE_SIZE,
-              sort = EntityCreatedUpdatedTO.UPDATED,
-              direction = Sort.Direction.DESC)
-          Pageable pageable)
+      @RequestParam(value = "beforeId", required = false) Long beforeId,
+      @RequestParam(value = "size", defaultValue = "" + PAGE_SIZE) int size)
       throws Exception {
     new WhirlpoolDashboardTemplateModel(serverConfig, "history").apply(model);
 
-    Page<MixTO> page = dbService.findMixs(pageable);
+    // seek by id, without rawTx nor total count
+    size = Math.max(1, Math.min(size, PAGE_SIZE_MAX));
+    KeysetPage<MixHistoryProjection> page = dbService.findMixHistory(beforeId, size);
     model.addAttribute("page", page);
     model.addAttribute("urlExplorer", explorerApi.getUrlTx());
     model.addAttribute("mixStats", dbService.getMixStats());
     model.addAttribute("ENDPOINT", ENDPOINT);
+    model.addAttribute("ENDPOINT_RAW_TX", ENDPOINT_RAW_TX);
 
     // getters used in template
     if (false) {
-      for (MixTO mixTO : page) {
-        mixTO.getMixId();
-        mixTO.getAnonymitySet();
-        mixTO.getNbMustMix();
-        mixTO.getNbLiquidities();
-        mixTO.getFeesAmount();
-        mixTO.getFeesPrice();
-        mixTO.getMixStatus();
-        mixTO.getFailReason();
-        mixTO.getFailInfo();
-        MixLogTO mixLogTO = mixTO.getMixLog();
-        mixLogTO.getTxid();
-        mixLogTO.getRawTx();
+      for (MixHistoryProjection mix : page.getContent()) {
+        mix.getUpdated();
+        mix.getPoolId();
+        mix.getMixId();
+        mix.getAnonymitySet();
+        mix.getNbMustMix();
+        mix.getNbLiquidities();
+        mix.getAmountOut();
+        mix.getFeesAmount();
+        mix.getFeesPrice();
+        mix.getMixDuration();
+        mix.getMixStatus();
+        mix.getFailReason();
+        mix.getFailInfo();
+        mix.getTxid();
       }
+      page.isFirst();
+      page.hasNext();
+      page.getNextBeforeId();
+      page.getSize();
     }
     return "history";
   }
+
+  // rawTx is only loaded when inspecting a single mix
+  @RequestMapping(value = ENDPOINT_RAW_TX, method = RequestMethod.GET)
+  public ResponseEntity<String> rawTx(@RequestParam(value = "mixId") String mixId)
+      throws Exception {
+    return dbService
+        .findMixRawTx(mixId)
+        .map(rawTx -> ResponseEntity.ok().contentType(MediaType.TEXT_PLAIN).body(rawTx))
+        .orElse(ResponseEntity.status(HttpStatus.NOT_FOUND).build());
+  }
 }
@@ -7,6 +7,7 @@ import com.samourai.whirlpool.server.services.SigningService;
 import com.samourai.whirlpool.server.services.WSMessageService;
 import java.lang.invoke.MethodHandles;
 import java.security.Principal;
+import java.util.concurrent.CompletionException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -43,8 +44,18 @@ public class SigningController extends AbstractWebSocketController {
       log.debug("(<) [" + payload.mixId + "] " + username + " " + headers.getDestination());
     }
 
-    // signing
-    signingService.signing(payload.mixId, username, payload.witnesses64);
+    // signing (signature is verified asynchronously)
+    signingService
+        .signing(payload.mixId, username, payload.witnesses64)
+        .exceptionally(
+            e -> {
+              Throwable cause = e instanceof CompletionException ? e.getCause() : e;
+              handleException(
+                  cause instanceof Exception ? (Exception) cause : new Exception(cause),
+                  principal,
+                  headers);
+              return null;
+            });
   }
 
   @MessageExceptionHandler
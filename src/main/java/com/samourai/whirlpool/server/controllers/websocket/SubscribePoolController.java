@@ -52,7 +52,7 @@ public class SubscribePoolController extends AbstractWebSocketController {
         poolService.computeSubscribePoolResponse(headerPoolId);
 
     // delay to make sure client processed subscription before sending him private response
-    taskService.runOnce(
+    taskService.runDelayed(
         SUBSCRIBE_RESPONSE_DELAY,
         () -> {
           // send reply
@@ -4,7 +4,6 @@ import com.samourai.whirlpool.server.persistence.to.BanTO;
 import java.sql.Timestamp;
 import java.util.List;
 import java.util.Optional;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
@@ -20,7 +19,17 @@ public interface BanRepository extends CrudRepository<BanTO, Long> {
   Optional<BanTO> findFirstByIdentifierOrderByExpirationDesc(
       @Param("identifier") String identifier);
 
-  @Query("SELECT b from ban b WHERE (expiration IS NULL OR expiration >= :expirationMin)")
-  Page<BanTO> findByExpirationAfterOrNull(
-      @Param("expirationMin") Timestamp expirationMin, Pageable pageable);
+  @Query(
+      "SELECT b from ban b WHERE b.id > :idMin AND (expiration IS NULL OR expiration >= :expirationMin) ORDER BY b.id ASC")
+  List<BanTO> findByExpirationAfterOrNullAndIdGreaterThan(
+      @Param("expirationMin") Timestamp expirationMin,
+      @Param("idMin") long idMin,
+      Pageable pageable);
+
+  @Query(
+      "SELECT b from ban b WHERE b.id < :idMax AND (expiration IS NULL OR expiration >= :expirationMin) ORDER BY b.id DESC")
+  List<BanTO> findByExpirationAfterOrNullAndIdLessThan(
+      @Param("expirationMin") Timestamp expirationMin,
+      @Param("idMax") long idMax,
+      Pageable pageable);
 }
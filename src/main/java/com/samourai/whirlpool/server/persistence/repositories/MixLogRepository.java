@@ -0,0 +1,13 @@
+package com.samourai.whirlpool.server.persistence.repositories;
+
+import com.samourai.whirlpool.server.persistence.to.MixLogTO;
+import java.util.Optional;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+
+public interface MixLogRepository extends CrudRepository<MixLogTO, Long> {
+
+  @Query("SELECT l from mixLog l WHERE l.mix.mixId=:mixId")
+  Optional<MixLogTO> findByMixId(@Param("mixId") String mixId);
+}
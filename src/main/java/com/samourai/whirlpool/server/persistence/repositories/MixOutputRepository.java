@@ -2,12 +2,21 @@ package com.samourai.whirlpool.server.persistence.repositories;
 
 import com.samourai.whirlpool.server.persistence.to.MixOutputTO;
 import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 
 public interface MixOutputRepository extends CrudRepository<MixOutputTO, Long> {
 
   Optional<MixOutputTO> findByAddress(String address);
 
-  Collection<MixOutputTO> deleteByAddress(String addresses);
+  List<MixOutputTO> findByIdGreaterThanOrderByIdAsc(long idMin, Pageable pageable);
+
+  @Modifying
+  @Query("DELETE from mixOutput o WHERE o.address IN :addresses")
+  int deleteByAddressIn(@Param("addresses") Collection<String> addresses);
 }
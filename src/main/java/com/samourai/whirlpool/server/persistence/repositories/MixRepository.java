@@ -1,7 +1,12 @@
 package com.samourai.whirlpool.server.persistence.repositories;
 
 import com.samourai.whirlpool.protocol.websocket.notifications.MixStatus;
+import com.samourai.whirlpool.server.persistence.to.MixHistoryProjection;
+import com.samourai.whirlpool.server.persistence.to.MixRollupProjection;
 import com.samourai.whirlpool.server.persistence.to.MixTO;
+import java.sql.Timestamp;
+import java.util.List;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.PagingAndSortingRepository;
 import org.springframework.data.repository.query.Param;
@@ -15,4 +20,17 @@ public interface MixRepository extends PagingAndSortingRepository<MixTO, Long> {
 
   @Query("SELECT SUM(amountOut) from mix WHERE mixStatus=:mixStatus")
   Long sumAmountOutByMixStatus(@Param("mixStatus") MixStatus mixStatus);
+
+  List<MixRollupProjection> findByCreatedGreaterThanEqualAndIdGreaterThanOrderByIdAsc(
+      Timestamp createdMin, long idMin, Pageable pageable);
+
+  @Query(
+      "SELECT m.id AS id, m.updated AS updated, m.poolId AS poolId, m.mixId AS mixId,"
+          + " m.anonymitySet AS anonymitySet, m.nbMustMix AS nbMustMix,"
+          + " m.nbLiquidities AS nbLiquidities, m.amountOut AS amountOut,"
+          + " m.feesAmount AS feesAmount, m.feesPrice AS feesPrice, m.mixDuration AS mixDuration,"
+          + " m.mixStatus AS mixStatus, m.failReason AS failReason, m.failInfo AS failInfo,"
+          + " l.txid AS txid"
+          + " from mix m LEFT JOIN m.mixLog l WHERE m.id < :idMax ORDER BY m.id DESC")
+  List<MixHistoryProjection> findMixHistory(@Param("idMax") long idMax, Pageable pageable);
 }
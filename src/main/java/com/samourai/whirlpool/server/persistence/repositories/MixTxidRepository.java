@@ -1,10 +1,14 @@
 package com.samourai.whirlpool.server.persistence.repositories;
 
 import com.samourai.whirlpool.server.persistence.to.MixTxidTO;
+import java.util.List;
 import java.util.Optional;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.repository.CrudRepository;
 
 public interface MixTxidRepository extends CrudRepository<MixTxidTO, Long> {
 
+  List<MixTxidTO> findByIdGreaterThanOrderByIdAsc(long idMin, Pageable pageable);
+
   Optional<MixTxidTO> findByTxidAndDenomination(String txid, long denomination);
 }
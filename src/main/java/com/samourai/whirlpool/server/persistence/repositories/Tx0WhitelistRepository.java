@@ -1,10 +1,14 @@
 package com.samourai.whirlpool.server.persistence.repositories;
 
 import com.samourai.whirlpool.server.persistence.to.Tx0WhitelistTO;
+import java.util.List;
 import java.util.Optional;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.repository.CrudRepository;
 
 public interface Tx0WhitelistRepository extends CrudRepository<Tx0WhitelistTO, Long> {
 
+  List<Tx0WhitelistTO> findByIdGreaterThanOrderByIdAsc(long idMin, Pageable pageable);
+
   Optional<Tx0WhitelistTO> findByTxid(String txid);
 }
@@ -3,8 +3,11 @@ package com.samourai.whirlpool.server.persistence.to;
 import com.samourai.whirlpool.server.persistence.to.shared.EntityCreatedTO;
 import java.sql.Timestamp;
 import javax.persistence.Entity;
+import javax.persistence.Index;
+import javax.persistence.Table;
 
 @Entity(name = "ban")
+@Table(indexes = {@Index(name = "ban_expiration_id", columnList = "expiration,id")})
 public class BanTO extends EntityCreatedTO {
   private String identifier;
 
@@ -0,0 +1,38 @@
+package com.samourai.whirlpool.server.persistence.to;
+
+import com.samourai.whirlpool.protocol.websocket.notifications.MixStatus;
+import com.samourai.whirlpool.server.beans.FailReason;
+import java.sql.Timestamp;
+
+/** Columns of mix shown in history, with txid but without rawTx. */
+public interface MixHistoryProjection {
+  Long getId();
+
+  Timestamp getUpdated();
+
+  String getPoolId();
+
+  String getMixId();
+
+  int getAnonymitySet();
+
+  int getNbMustMix();
+
+  int getNbLiquidities();
+
+  long getAmountOut();
+
+  Long getFeesAmount();
+
+  Long getFeesPrice();
+
+  int getMixDuration();
+
+  MixStatus getMixStatus();
+
+  FailReason getFailReason();
+
+  String getFailInfo();
+
+  String getTxid();
+}
@@ -1,11 +1,13 @@
 package com.samourai.whirlpool.server.persistence.to;
 
-import com.samourai.wallet.util.TxUtil;
 import com.samourai.whirlpool.server.beans.Mix;
 import com.samourai.whirlpool.server.persistence.to.shared.EntityTO;
+import com.samourai.whirlpool.server.utils.Utils;
 import javax.persistence.*;
+import org.bouncycastle.util.encoders.Hex;
 
 @Entity(name = "mixLog")
+@Table(indexes = {@Index(name = "mix_log_mix_id", columnList = "mix_id")})
 public class MixLogTO extends EntityTO {
   @OneToOne(fetch = FetchType.LAZY)
   @JoinColumn(name = "mix_id")
@@ -13,9 +15,14 @@ public class MixLogTO extends EntityTO {
 
   private String txid;
 
+  // legacy hex, null once converted to rawTxCompressed
   @Column(columnDefinition = "MEDIUMTEXT")
   private String rawTx;
 
+  // deflated raw bytes
+  @Column(columnDefinition = "MEDIUMBLOB")
+  private byte[] rawTxCompressed;
+
   public MixLogTO() {}
 
   public void update(Mix mix, MixTO mixTO) {
@@ -23,15 +30,33 @@ public class MixLogTO extends EntityTO {
 
     if (mix.getTx() != null) {
       this.txid = mix.getTx().getHashAsString();
-      this.rawTx = TxUtil.getInstance().getTxHex(mix.getTx());
+      this.rawTx = null;
+      this.rawTxCompressed = Utils.compress(mix.getTx().bitcoinSerialize());
     }
   }
 
   public String getRawTx() {
-    return rawTx;
+    if (rawTxCompressed == null) {
+      return rawTx;
+    }
+    try {
+      return Hex.toHexString(Utils.decompress(rawTxCompressed));
+    } catch (Exception e) {
+      throw new RuntimeException("corrupted rawTx for txid=" + txid, e);
+    }
   }
 
   public String getTxid() {
     return txid;
   }
+
+  public byte[] getRawTxCompressed() {
+    return rawTxCompressed;
+  }
+
+  // for tests only
+  public void __setRawTx(String rawTx) {
+    this.rawTx = rawTx;
+    this.rawTxCompressed = null;
+  }
 }
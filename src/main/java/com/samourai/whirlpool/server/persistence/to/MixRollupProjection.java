@@ -0,0 +1,28 @@
+package com.samourai.whirlpool.server.persistence.to;
+
+import com.samourai.whirlpool.protocol.websocket.notifications.MixStatus;
+import com.samourai.whirlpool.server.beans.FailReason;
+import java.sql.Timestamp;
+
+/** Columns of mix needed for rollups, without loading mixLog. */
+public interface MixRollupProjection {
+  Long getId();
+
+  Timestamp getCreated();
+
+  String getPoolId();
+
+  int getAnonymitySet();
+
+  int getNbMustMix();
+
+  int getNbLiquidities();
+
+  Long getFeesAmount();
+
+  int getMixDuration();
+
+  MixStatus getMixStatus();
+
+  FailReason getFailReason();
+}
@@ -1,6 +1,7 @@
 package com.samourai.whirlpool.server.services;
 
 import com.google.common.collect.ImmutableMap;
+import com.samourai.whirlpool.server.beans.KeysetPage;
 import com.samourai.whirlpool.server.beans.RegisteredInput;
 import com.samourai.whirlpool.server.beans.export.ActivityCsv;
 import com.samourai.whirlpool.server.config.WhirlpoolServerConfig;
@@ -9,24 +10,32 @@ import com.samourai.whirlpool.server.persistence.to.BlameTO;
 import com.samourai.whirlpool.server.utils.Utils;
 import java.lang.invoke.MethodHandles;
 import java.sql.Timestamp;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.PriorityQueue;
 import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 @Service
 public class BanService {
   private static final Logger log = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+  private static final int LOAD_PAGE_SIZE = 1000;
   private DbService dbService;
   private WhirlpoolServerConfig serverConfig;
   private ExportService exportService;
   private MetricService metricService;
 
+  // active bans, checked for each registering input
+  private Map<String, BanTO> activeBans; // by identifier, longest ban
+  private PriorityQueue<BanTO> activeBansByExpiration; // temporary bans, soonest expiration first
+
   @Autowired
   public BanService(
       DbService dbService,
@@ -37,6 +46,61 @@ public class BanService {
     this.serverConfig = serverConfig;
     this.exportService = exportService;
     this.metricService = metricService;
+    this.activeBans = new HashMap<>();
+    this.activeBansByExpiration =
+        new PriorityQueue<>(Comparator.comparing(banTO -> banTO.getExpiration()));
+    loadActiveBans();
+    metricService.manageActiveBans(this);
+  }
+
+  @Scheduled(fixedDelay = 600000)
+  public synchronized void loadActiveBans() {
+    // reload from db in case bans were edited externally
+    activeBans.clear();
+    activeBansByExpiration.clear();
+    Timestamp now = new Timestamp(System.currentTimeMillis());
+    long idMin = 0;
+    List<BanTO> page;
+    do {
+      page = dbService.findBanByExpirationAfterOrNull(now, idMin, LOAD_PAGE_SIZE);
+      for (BanTO banTO : page) {
+        indexActiveBan(banTO);
+        idMin = banTO.getId();
+      }
+    } while (page.size() == LOAD_PAGE_SIZE);
+    log.info("loadActiveBans: " + activeBans.size() + " active bans");
+  }
+
+  private synchronized void indexActiveBan(BanTO banTO) {
+    BanTO current = activeBans.get(banTO.getIdentifier());
+    if (current == null || isLonger(banTO, current)) {
+      activeBans.put(banTO.getIdentifier(), banTO);
+    }
+    if (banTO.getExpiration() != null) {
+      activeBansByExpiration.add(banTO);
+    }
+  }
+
+  private boolean isLonger(BanTO banTO, BanTO current) {
+    if (current.getExpiration() == null) {
+      return false; // permanent
+    }
+    return banTO.getExpiration() == null || banTO.getExpiration().after(current.getExpiration());
+  }
+
+  @Scheduled(fixedDelay = 60000)
+  public synchronized void purgeExpiredBans() {
+    long now = System.currentTimeMillis();
+    while (!activeBansByExpiration.isEmpty()
+        && activeBansByExpiration.peek().getExpiration().getTime() < now) {
+      BanTO expired = activeBansByExpiration.poll();
+      // remove only if not superseded by a longer ban
+      activeBans.remove(expired.getIdentifier(), expired);
+    }
+  }
+
+  public synchronized int getNbActiveBans() {
+    return activeBans.size();
   }
 
   public BanTO banTemporary(String identifier, String response, String notes) {
@@ -71,7 +135,9 @@ public class BanService {
   protected BanTO banTemporary(
       Timestamp created, String identifier, String response, String notes, long expirationDelay) {
     Timestamp expiration = new Timestamp(created.getTime() + expirationDelay);
-    return dbService.saveBan(created, identifier, expiration, response, notes);
+    BanTO banTO = dbService.saveBan(created, identifier, expiration, response, notes);
+    indexActiveBan(banTO);
+    return banTO;
   }
 
   public Optional<BanTO> findActiveBan(String utxoHash, long utxoIndex) {
@@ -94,15 +160,17 @@ public class BanService {
     return banByUtxo;
   }
 
-  protected Optional<BanTO> findActiveBan(String identifier, Timestamp now) {
-    List<BanTO> activeBans = dbService.findBanByIdentifierAndExpirationAfterOrNull(identifier, now);
-    return (!activeBans.isEmpty() ? Optional.of(activeBans.get(0)) : Optional.empty());
+  protected synchronized Optional<BanTO> findActiveBan(String identifier, Timestamp now) {
+    BanTO banTO = activeBans.get(identifier);
+    if (banTO == null || (banTO.getExpiration() != null && banTO.getExpiration().before(now))) {
+      return Optional.empty();
+    }
+    return Optional.of(banTO);
   }
 
-  public Page<BanTO> findActiveBans(Pageable pageable) {
+  public KeysetPage<BanTO> findActiveBans(Long beforeId, int size) {
     Timestamp now = new Timestamp(System.currentTimeMillis());
-    Page<BanTO> bans = dbService.findBanByExpirationAfterOrNull(now, pageable);
-    return bans;
+    return dbService.findBanByExpirationAfterOrNull(now, beforeId, size);
   }
 
   public void onBlame(RegisteredInput registeredInput, String identifier, List<BlameTO> blames) {
@@ -5,13 +5,22 @@ import com.samourai.whirlpool.server.beans.BlameReason;
 import com.samourai.whirlpool.server.beans.Mix;
 import com.samourai.whirlpool.server.beans.RegisteredInput;
 import com.samourai.whirlpool.server.beans.export.ActivityCsv;
+import com.samourai.whirlpool.server.config.WhirlpoolServerConfig;
 import com.samourai.whirlpool.server.persistence.to.BlameTO;
 import com.samourai.whirlpool.server.utils.Utils;
 import java.lang.invoke.MethodHandles;
+import java.sql.Timestamp;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 @Service
@@ -21,26 +30,73 @@ public class BlameService {
   private BanService banService;
   private ExportService exportService;
   private MetricService metricService;
+  private WhirlpoolServerConfig serverConfig;
+  private Map<String, Deque<BlameTO>> recentBlames; // blames within ban period, by identifier
 
   @Autowired
   public BlameService(
       DbService dbService,
       BanService banService,
       ExportService exportService,
-      MetricService metricService) {
+      MetricService metricService,
+      WhirlpoolServerConfig serverConfig) {
     this.dbService = dbService;
     this.banService = banService;
     this.exportService = exportService;
     this.metricService = metricService;
+    this.serverConfig = serverConfig;
+    this.recentBlames = new HashMap<>();
+    loadRecentBlames();
+  }
+
+  public synchronized void loadRecentBlames() {
+    recentBlames.clear();
+    Timestamp createdMin = new Timestamp(computeCreatedMin());
+    for (BlameTO blameTO : dbService.findBlamesCreatedAfter(createdMin)) {
+      recentBlames.computeIfAbsent(blameTO.getIdentifier(), k -> new ArrayDeque<>()).add(blameTO);
+    }
+    log.info("loadRecentBlames: " + recentBlames.size() + " identifiers");
+  }
+
+  private long computeCreatedMin() {
+    return System.currentTimeMillis() - serverConfig.getBan().getPeriod() * 1000;
+  }
+
+  private synchronized List<BlameTO> addRecentBlame(String identifier, BlameTO blameTO) {
+    Deque<BlameTO> blames = recentBlames.computeIfAbsent(identifier, k -> new ArrayDeque<>());
+    blames.add(blameTO);
+    purgeExpired(blames, computeCreatedMin());
+    return new ArrayList<>(blames);
+  }
+
+  @Scheduled(fixedDelay = 600000)
+  public synchronized void purgeRecentBlames() {
+    long createdMin = computeCreatedMin();
+    Iterator<Deque<BlameTO>> it = recentBlames.values().iterator();
+    while (it.hasNext()) {
+      Deque<BlameTO> blames = it.next();
+      purgeExpired(blames, createdMin);
+      if (blames.isEmpty()) {
+        it.remove();
+      }
+    }
+  }
+
+  private void purgeExpired(Deque<BlameTO> blames, long createdMin) {
+    // oldest first
+    while (!blames.isEmpty() && blames.peekFirst().getCreated().getTime() <= createdMin) {
+      blames.pollFirst();
+    }
   }
 
   public void blame(RegisteredInput registeredInput, BlameReason reason, Mix mix) {
     // blame
     String identifier = Utils.computeBlameIdentitifer(registeredInput);
-    dbService.saveBlame(identifier, reason, mix.getMixId(), registeredInput.getIp());
+    BlameTO blameTO =
+        dbService.saveBlame(identifier, reason, mix.getMixId(), registeredInput.getIp());
 
-    // notify banService
-    List<BlameTO> blames = dbService.findBlames(identifier);
+    // notify banService with blames from sliding window, without reading db
+    List<BlameTO> blames = addRecentBlame(identifier, blameTO);
     banService.onBlame(registeredInput, identifier, blames);
 
     // log activity
@@ -9,6 +9,7 @@ import com.samourai.whirlpool.server.beans.rpc.TxOutPoint;
 import com.samourai.whirlpool.server.config.WhirlpoolServerConfig;
 import com.samourai.whirlpool.server.services.rpc.RpcClientService;
 import com.samourai.whirlpool.server.services.rpc.RpcRawTransactionResponse;
+import com.samourai.whirlpool.server.utils.BoundedCache;
 import com.samourai.whirlpool.server.utils.Utils;
 import java.lang.invoke.MethodHandles;
 import java.util.Optional;
@@ -27,18 +28,26 @@ public class BlockchainDataService {
   private Bech32UtilGeneric bech32Util;
   private WhirlpoolServerConfig serverConfig;
   private Integer blockHeight;
+  private BoundedCache<String, CachedTx> txCache; // parsed txs by txid
 
   public BlockchainDataService(
       CryptoService cryptoService,
       RpcClientService rpcClientService,
       Bech32UtilGeneric bech32Util,
-      WhirlpoolServerConfig serverConfig) {
+      WhirlpoolServerConfig serverConfig,
+      MetricService metricService) {
     this.cryptoService = cryptoService;
     this.rpcClientService = rpcClientService;
     this.bech32Util = bech32Util;
     this.serverConfig = serverConfig;
     this.blockHeight = null;
 
+    WhirlpoolServerConfig.RpcClientConfig rpcClientConfig = serverConfig.getRpcClient();
+    this.txCache =
+        new BoundedCache<>(
+            rpcClientConfig.getTxCacheSize(), rpcClientConfig.getTxCacheTtl() * 1000L);
+    metricService.manageCache("rpcTransaction", txCache);
+
     // fetch blockHeight on startup
     AsyncUtil.getInstance().runIOAsyncCompletable(() -> scheduleBlockHeight());
   }
@@ -57,6 +66,7 @@ public class BlockchainDataService {
       log.error("scheduleBlockHeight failed!", e);
       blockHeight = null;
     }
+    txCache.purgeExpired();
   }
 
   public boolean checkBlockHeight(long testBlockHeight) {
@@ -89,6 +99,13 @@ public class BlockchainDataService {
   }
 
   public Optional<RpcTransaction> getRpcTransaction(String txid) {
+    // same tx is queried for each of its outputs registering => reuse parsed tx
+    Integer currentBlockHeight = blockHeight;
+    Optional<RpcTransaction> cached = getCachedRpcTransaction(txid, currentBlockHeight);
+    if (cached.isPresent()) {
+      return cached;
+    }
+
     if (log.isTraceEnabled()) {
       log.trace("RPC query: getRawTransaction " + txid);
     }
@@ -100,6 +117,9 @@ public class BlockchainDataService {
     try {
       NetworkParameters params = cryptoService.getNetworkParameters();
       RpcTransaction rpcTx = new RpcTransaction(queryRawTxHex.get(), params);
+      if (currentBlockHeight != null) {
+        txCache.put(txid, new CachedTx(rpcTx, currentBlockHeight));
+      }
       return Optional.of(rpcTx);
     } catch (Exception e) {
       log.error("Unable to parse RpcRawTransactionResponse", e);
@@ -107,6 +127,23 @@ public class BlockchainDataService {
     }
   }
 
+  private Optional<RpcTransaction> getCachedRpcTransaction(
+      String txid, Integer currentBlockHeight) {
+    if (currentBlockHeight == null) {
+      return Optional.empty(); // chain tip unknown
+    }
+    CachedTx cachedTx = txCache.get(txid);
+    if (cachedTx == null) {
+      return Optional.empty();
+    }
+    if (cachedTx.blockHeight != currentBlockHeight) {
+      // new block since cached => confirmations changed, refetch rather than extrapolate
+      txCache.remove(txid);
+      return Optional.empty();
+    }
+    return Optional.of(cachedTx.rpcTransaction);
+  }
+
   public Optional<TxOutPoint> getOutPoint(RpcTransaction rpcTransaction, long utxoIndex) {
     String utxoHash = rpcTransaction.getTx().getHashAsString();
     TransactionOutput txOutput = rpcTransaction.getTx().getOutput(utxoIndex);
@@ -136,6 +173,10 @@ public class BlockchainDataService {
     return blockHeight;
   }
 
+  public void __reset() {
+    txCache.clear();
+  }
+
   public ChainSupplier computeChainSupplier() {
     ChainSupplier chainSupplier =
         () -> {
@@ -145,4 +186,14 @@ public class BlockchainDataService {
         };
     return chainSupplier;
   }
+
+  private static class CachedTx {
+    private final RpcTransaction rpcTransaction;
+    private final int blockHeight; // polled chain tip when fetched
+
+    CachedTx(RpcTransaction rpcTransaction, int blockHeight) {
+      this.rpcTransaction = rpcTransaction;
+      this.blockHeight = blockHeight;
+    }
+  }
 }
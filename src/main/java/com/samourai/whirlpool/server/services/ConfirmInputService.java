@@ -28,7 +28,7 @@ public class ConfirmInputService {
     this.exportService = exportService;
   }
 
-  public synchronized Optional<byte[]> confirmInputOrQueuePool(
+  public Optional<byte[]> confirmInputOrQueuePool(
       String mixId, String username, byte[] blindedBordereau, String userHash)
       throws NotifiableException {
     try {
@@ -2,66 +2,172 @@ package com.samourai.whirlpool.server.services;
 
 import com.samourai.whirlpool.protocol.websocket.notifications.MixStatus;
 import com.samourai.whirlpool.server.beans.BlameReason;
+import com.samourai.whirlpool.server.beans.KeysetPage;
 import com.samourai.whirlpool.server.beans.Mix;
 import com.samourai.whirlpool.server.beans.MixStats;
 import com.samourai.whirlpool.server.persistence.repositories.*;
 import com.samourai.whirlpool.server.persistence.to.*;
+import com.samourai.whirlpool.server.utils.TxidMap;
+import com.samourai.whirlpool.server.utils.Utils;
 import java.lang.invoke.MethodHandles;
 import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.PreDestroy;
+import org.bouncycastle.util.encoders.Hex;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 @Service
 public class DbService {
   private static final Logger log = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+  private static final int LOAD_PAGE_SIZE = 10000;
+  private static final int BLAME_BATCH_SIZE = 500;
+  protected static final int BLAME_FLUSH_ATTEMPTS = 5;
+  private static final int MIX_LOG_CONVERT_BATCH_SIZE = 500;
+  private static final long MIX_LOG_CONVERT_DELAY = 10000;
+  private static final String SQL_SELECT_MIX_LOG_RAW_TX =
+      "SELECT id, raw_tx FROM mix_log WHERE raw_tx IS NOT NULL AND id > ? ORDER BY id ASC LIMIT ?";
+  private static final String SQL_CONVERT_MIX_LOG_RAW_TX =
+      "UPDATE mix_log SET raw_tx_compressed = ?, raw_tx = NULL WHERE id = ?";
+  private static final String SQL_INSERT_BLAME =
+      "INSERT INTO blame (created, identifier, reason, mix_id, ip) VALUES (?, ?, ?, ?, ?)";
 
   private MixRepository mixRepository;
+  private MixLogRepository mixLogRepository;
   private Tx0WhitelistRepository tx0WhitelistRepository;
   private MixOutputRepository mixOutputRepository;
   private MixTxidRepository mixTxidRepository;
-  private MixStats mixStats; // cached value
+  private MixStats mixStats; // totals of successful mixs, updated on saveMix
   private BlameRepository blameRepository;
   private BanRepository banRepository;
+  private Set<String> mixTxidsPending; // mix txids not persisted yet
+  private TxidMap mixTxids; // in-memory copy of mixTxid: txid -> denomination
+  private TxidMap tx0Whitelist; // in-memory copy of tx0_whitelist
+  private TxidMap mixOutputs; // in-memory copy of mixOutput (revoked receive addresses)
+  private Queue<BlameTO> blamesPending; // blames not persisted yet
+  private List<BlameTO> blamesRetry; // failed batch, retried first by next flushBlames()
+  private int blamesRetryAttempts;
+  private MetricService metricService;
+  private JdbcTemplate jdbcTemplate;
+  private TransactionTemplate transactionTemplate;
+  private long mixLogConvertIdMin; // legacy rawTx converted up to this id
+  private boolean mixLogConverted; // no legacy rawTx left
+  private ScheduledExecutorService mixLogConverter; // own thread, off the shared scheduler
 
   public DbService(
       MixRepository mixRepository,
+      MixLogRepository mixLogRepository,
       Tx0WhitelistRepository tx0WhitelistRepository,
       MixOutputRepository mixOutputRepository,
       MixTxidRepository mixTxidRepository,
       BlameRepository blameRepository,
-      BanRepository banRepository) {
+      BanRepository banRepository,
+      MetricService metricService,
+      JdbcTemplate jdbcTemplate,
+      PlatformTransactionManager transactionManager) {
     this.mixRepository = mixRepository;
+    this.mixLogRepository = mixLogRepository;
     this.tx0WhitelistRepository = tx0WhitelistRepository;
     this.mixOutputRepository = mixOutputRepository;
     this.mixTxidRepository = mixTxidRepository;
     this.blameRepository = blameRepository;
     this.banRepository = banRepository;
+    this.mixTxidsPending = ConcurrentHashMap.newKeySet();
+    this.mixTxids = new TxidMap();
+    this.tx0Whitelist = new TxidMap();
+    this.mixOutputs = new TxidMap();
+    this.blamesPending = new ConcurrentLinkedQueue<>();
+    this.blamesRetry = new ArrayList<>();
+    this.blamesRetryAttempts = 0;
+    this.metricService = metricService;
+    this.jdbcTemplate = jdbcTemplate;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.mixLogConvertIdMin = 0;
+    this.mixLogConverted = false;
+
+    loadMixStats();
+
+    // checked for each registering input => load in memory
+    loadMixTxids();
+    loadTx0Whitelist();
+    loadMixOutputs();
+    metricService.manageTxidMap("mixTxid", mixTxids);
+    metricService.manageTxidMap("tx0Whitelist", tx0Whitelist);
+    metricService.manageTxidMap("mixOutput", mixOutputs);
+
+    this.mixLogConverter =
+        Executors.newSingleThreadScheduledExecutor(
+            runnable -> {
+              Thread thread = new Thread(runnable, "mixLogConverter");
+              thread.setDaemon(true);
+              return thread;
+            });
+    mixLogConverter.scheduleWithFixedDelay(
+        () -> {
+          try {
+            convertMixLogRawTx();
+          } catch (Exception e) {
+            log.error("convertMixLogRawTx failed", e);
+          }
+        },
+        MIX_LOG_CONVERT_DELAY,
+        MIX_LOG_CONVERT_DELAY,
+        TimeUnit.MILLISECONDS);
+  }
+
+  @PreDestroy
+  public void stop() {
+    mixLogConverter.shutdownNow();
+    flushBlames();
   }
 
   // mix
 
   public void saveMix(Mix mix) {
     MixTO mixTO = mix.computeMixTO();
+    boolean isNew = (mixTO.getId() == null);
     mixRepository.save(mixTO);
-    mixStats = null; // clear cache
+    if (isNew && MixStatus.SUCCESS.equals(mixTO.getMixStatus())) {
+      // update totals incrementally
+      synchronized (this) {
+        mixStats =
+            new MixStats(
+                mixStats.getNbMixs() + 1,
+                mixStats.getSumMustMix() + mixTO.getNbMustMix() * mixTO.getDenomination(),
+                mixStats.getSumAmountOut() + mixTO.getAmountOut());
+      }
+    }
   }
 
-  public MixStats getMixStats() {
-    if (mixStats == null) {
-      long nbMixs = zeroIfNull(mixRepository.countByMixStatus(MixStatus.SUCCESS));
-      long sumMustMix = zeroIfNull(mixRepository.sumMustMixByMixStatus(MixStatus.SUCCESS));
-      long sumAmountOut = zeroIfNull(mixRepository.sumAmountOutByMixStatus(MixStatus.SUCCESS));
-      mixStats = new MixStats(nbMixs, sumMustMix, sumAmountOut);
-    }
+  public synchronized MixStats getMixStats() {
     return mixStats;
   }
 
+  private synchronized void loadMixStats() {
+    // full-table aggregates: only once on startup
+    long nbMixs = zeroIfNull(mixRepository.countByMixStatus(MixStatus.SUCCESS));
+    long sumMustMix = zeroIfNull(mixRepository.sumMustMixByMixStatus(MixStatus.SUCCESS));
+    long sumAmountOut = zeroIfNull(mixRepository.sumAmountOutByMixStatus(MixStatus.SUCCESS));
+    mixStats = new MixStats(nbMixs, sumMustMix, sumAmountOut);
+  }
+
   private long zeroIfNull(Long value) {
     return value != null ? value : 0;
   }
@@ -69,7 +175,28 @@ public class DbService {
   // tx0Whitelist
 
   public boolean hasTx0Whitelist(String txid) {
-    return tx0WhitelistRepository.findByTxid(txid).isPresent();
+    return tx0Whitelist.contains(txid);
+  }
+
+  @Scheduled(fixedDelay = 600000)
+  public void loadTx0Whitelist() {
+    // tx0_whitelist is managed externally => reload periodically
+    TxidMap newTx0Whitelist = new TxidMap();
+    long idMin = 0;
+    List<Tx0WhitelistTO> page;
+    do {
+      page =
+          tx0WhitelistRepository.findByIdGreaterThanOrderByIdAsc(
+              idMin, PageRequest.of(0, LOAD_PAGE_SIZE));
+      for (Tx0WhitelistTO tx0WhitelistTO : page) {
+        newTx0Whitelist.put(tx0WhitelistTO.getTxid(), 0);
+        idMin = tx0WhitelistTO.getId();
+      }
+    } while (page.size() == LOAD_PAGE_SIZE);
+    tx0Whitelist.replaceWith(newTx0Whitelist);
+    if (log.isDebugEnabled()) {
+      log.debug("loadTx0Whitelist: " + tx0Whitelist.getSize() + " txids");
+    }
   }
 
   // output
@@ -77,45 +204,209 @@ public class DbService {
   public void saveMixOutput(String outputAddress) {
     MixOutputTO mixOutputTO = new MixOutputTO(outputAddress);
     mixOutputRepository.save(mixOutputTO);
+    mixOutputs.put(computeMixOutputKey(outputAddress), 0);
   }
 
   public boolean hasMixOutput(String receiveAddress) {
-    return mixOutputRepository.findByAddress(receiveAddress).isPresent();
+    return mixOutputs.contains(computeMixOutputKey(receiveAddress));
   }
 
   @Transactional
-  public void deleteMixOutput(String receiveAddress) {
-    mixOutputRepository.deleteByAddress(receiveAddress);
-    log.info("deleteMixOutput: " + receiveAddress);
+  public void deleteMixOutputs(Collection<String> receiveAddresses) {
+    if (receiveAddresses.isEmpty()) {
+      return;
+    }
+    int nbDeleted = mixOutputRepository.deleteByAddressIn(receiveAddresses);
+    for (String receiveAddress : receiveAddresses) {
+      mixOutputs.remove(computeMixOutputKey(receiveAddress));
+    }
+    log.info("deleteMixOutputs: " + nbDeleted + "/" + receiveAddresses.size());
+  }
+
+  private void loadMixOutputs() {
+    mixOutputs.clear();
+    long idMin = 0;
+    List<MixOutputTO> page;
+    do {
+      page =
+          mixOutputRepository.findByIdGreaterThanOrderByIdAsc(
+              idMin, PageRequest.of(0, LOAD_PAGE_SIZE));
+      for (MixOutputTO mixOutputTO : page) {
+        mixOutputs.put(computeMixOutputKey(mixOutputTO.getAddress()), 0);
+        idMin = mixOutputTO.getId();
+      }
+    } while (page.size() == LOAD_PAGE_SIZE);
+    log.info("loadMixOutputs: " + mixOutputs.getSize() + " addresses");
+  }
+
+  private String computeMixOutputKey(String receiveAddress) {
+    return receiveAddress.toLowerCase(); // bech32 is case-insensitive
   }
 
   // txid
 
+  public void saveMixTxidPending(String txid, long denomination) {
+    mixTxidsPending.add(computeMixTxidKey(txid, denomination));
+  }
+
   public void saveMixTxid(String txid, long denomination) {
     MixTxidTO mixTxidTO = new MixTxidTO(txid, denomination);
     mixTxidRepository.save(mixTxidTO);
+    mixTxids.put(txid, denomination);
+    mixTxidsPending.remove(computeMixTxidKey(txid, denomination));
+  }
+
+  public boolean isMixTxidPending(String txid, long denomination) {
+    return mixTxidsPending.contains(computeMixTxidKey(txid, denomination));
   }
 
   public boolean hasMixTxid(String txid, long denomination) {
-    return mixTxidRepository.findByTxidAndDenomination(txid, denomination).isPresent();
+    if (mixTxidsPending.contains(computeMixTxidKey(txid, denomination))) {
+      return true;
+    }
+    return mixTxids.contains(txid, denomination);
   }
 
-  public Page<MixTO> findMixs(Pageable pageable) {
-    return mixRepository.findAll(pageable);
+  private void loadMixTxids() {
+    mixTxids.clear();
+    long idMin = 0;
+    List<MixTxidTO> page;
+    do {
+      page =
+          mixTxidRepository.findByIdGreaterThanOrderByIdAsc(
+              idMin, PageRequest.of(0, LOAD_PAGE_SIZE));
+      for (MixTxidTO mixTxidTO : page) {
+        mixTxids.put(mixTxidTO.getTxid(), mixTxidTO.getDenomination());
+        idMin = mixTxidTO.getId();
+      }
+    } while (page.size() == LOAD_PAGE_SIZE);
+    log.info("loadMixTxids: " + mixTxids.getSize() + " txids");
+  }
+
+  private String computeMixTxidKey(String txid, long denomination) {
+    return txid + ":" + denomination;
+  }
+
+  // newest first, below beforeId (keyset pagination)
+  public KeysetPage<MixHistoryProjection> findMixHistory(Long beforeId, int size) {
+    long idMax = (beforeId != null ? beforeId : Long.MAX_VALUE);
+    List<MixHistoryProjection> rows =
+        mixRepository.findMixHistory(idMax, PageRequest.of(0, size + 1));
+    return new KeysetPage<>(rows, size, beforeId, MixHistoryProjection::getId);
+  }
+
+  public Optional<String> findMixRawTx(String mixId) {
+    return mixLogRepository.findByMixId(mixId).map(mixLogTO -> mixLogTO.getRawTx());
+  }
+
+  // convert legacy hex rawTx to compressed bytes, one batch per run
+  public synchronized void convertMixLogRawTx() {
+    if (mixLogConverted) {
+      return;
+    }
+    // plain JDBC: don't load mix relation nor merge detached entities
+    List<Object[]> batch =
+        jdbcTemplate.query(
+            SQL_SELECT_MIX_LOG_RAW_TX,
+            (rs, i) ->
+                new Object[] {
+                  Utils.compress(Hex.decode(rs.getString("raw_tx"))), rs.getLong("id")
+                },
+            mixLogConvertIdMin,
+            MIX_LOG_CONVERT_BATCH_SIZE);
+    if (batch.isEmpty()) {
+      log.info("convertMixLogRawTx: no legacy rawTx left");
+      mixLogConverted = true;
+      return;
+    }
+    // single transaction for the whole batch
+    transactionTemplate.executeWithoutResult(
+        status -> jdbcTemplate.batchUpdate(SQL_CONVERT_MIX_LOG_RAW_TX, batch));
+    mixLogConvertIdMin = (Long) batch.get(batch.size() - 1)[1];
+    if (log.isDebugEnabled()) {
+      log.debug("convertMixLogRawTx: " + batch.size() + " converted, idMin=" + mixLogConvertIdMin);
+    }
+  }
+
+  public List<MixRollupProjection> findMixRollupProjections(
+      Timestamp createdMin, long idMin, int limit) {
+    return mixRepository.findByCreatedGreaterThanEqualAndIdGreaterThanOrderByIdAsc(
+        createdMin, idMin, PageRequest.of(0, limit));
   }
 
   // blame
 
+  // persisted asynchronously by flushBlames()
   public BlameTO saveBlame(String identifier, BlameReason reason, String mixId, String ip) {
     BlameTO blameTO = new BlameTO(identifier, reason, mixId, ip);
+    blameTO.__setCreated(new Timestamp(System.currentTimeMillis()));
     log.warn("+blame: " + blameTO);
-    return blameRepository.save(blameTO);
+    blamesPending.add(blameTO);
+    return blameTO;
+  }
+
+  @Scheduled(fixedDelay = 1000)
+  public synchronized void flushBlames() {
+    List<BlameTO> blameTOs = new ArrayList<>(blamesRetry);
+    blamesRetry.clear();
+    BlameTO blameTO;
+    while ((blameTO = blamesPending.poll()) != null) {
+      blameTOs.add(blameTO);
+    }
+    if (blameTOs.isEmpty()) {
+      return;
+    }
+
+    // single JDBC batch (JPA can't batch inserts with IDENTITY ids), all or nothing for retry
+    try {
+      transactionTemplate.executeWithoutResult(
+          status ->
+              jdbcTemplate.batchUpdate(
+                  SQL_INSERT_BLAME,
+                  blameTOs,
+                  BLAME_BATCH_SIZE,
+                  (ps, b) -> {
+                    ps.setTimestamp(1, b.getCreated());
+                    ps.setString(2, b.getIdentifier());
+                    ps.setString(3, b.getReason().name());
+                    ps.setString(4, b.getMixId());
+                    ps.setString(5, b.getIp());
+                  }));
+      blamesRetryAttempts = 0;
+      if (log.isDebugEnabled()) {
+        log.debug("flushBlames: " + blameTOs.size() + " blames");
+      }
+    } catch (Exception e) {
+      blamesRetryAttempts++;
+      if (blamesRetryAttempts >= BLAME_FLUSH_ATTEMPTS) {
+        log.error(
+            "flushBlames failed after "
+                + blamesRetryAttempts
+                + " attempts, "
+                + blameTOs.size()
+                + " blames lost: "
+                + blameTOs,
+            e);
+        metricService.onBlameFlushDropped(blameTOs.size());
+        blamesRetryAttempts = 0;
+        return;
+      }
+      log.warn("flushBlames failed (attempt " + blamesRetryAttempts + "), retrying...", e);
+      metricService.onBlameFlushRetry();
+      blamesRetry.addAll(blameTOs);
+    }
   }
 
   public List<BlameTO> findBlames(String identifier) {
+    flushBlames();
     return blameRepository.findBlamesByIdentifierOrderByCreatedAsc(identifier);
   }
 
+  public List<BlameTO> findBlamesCreatedAfter(Timestamp createdMin) {
+    flushBlames();
+    return blameRepository.findByCreatedAfterOrderByCreatedAsc(createdMin);
+  }
+
   // ban
 
   public BanTO saveBan(
@@ -136,17 +427,40 @@ public class DbService {
     return banRepository.findByIdentifierAndExpirationAfterOrNull(identifier, expirationMin);
   }
 
-  public Page<BanTO> findBanByExpirationAfterOrNull(Timestamp expirationMin, Pageable pageable) {
-    return banRepository.findByExpirationAfterOrNull(expirationMin, pageable);
+  public List<BanTO> findBanByExpirationAfterOrNull(
+      Timestamp expirationMin, long idMin, int limit) {
+    return banRepository.findByExpirationAfterOrNullAndIdGreaterThan(
+        expirationMin, idMin, PageRequest.of(0, limit));
+  }
+
+  // newest first, below beforeId (keyset pagination)
+  public KeysetPage<BanTO> findBanByExpirationAfterOrNull(
+      Timestamp expirationMin, Long beforeId, int size) {
+    long idMax = (beforeId != null ? beforeId : Long.MAX_VALUE);
+    List<BanTO> rows =
+        banRepository.findByExpirationAfterOrNullAndIdLessThan(
+            expirationMin, idMax, PageRequest.of(0, size + 1));
+    return new KeysetPage<>(rows, size, beforeId, BanTO::getId);
   }
 
   public void __reset() {
     // TODO for tests only!
+    mixLogRepository.deleteAll();
     mixRepository.deleteAll();
     tx0WhitelistRepository.deleteAll();
     mixOutputRepository.deleteAll();
     mixTxidRepository.deleteAll();
+    blamesPending.clear();
+    blamesRetry.clear();
+    blamesRetryAttempts = 0;
     blameRepository.deleteAll();
     banRepository.deleteAll();
+    mixTxidsPending.clear();
+    mixStats = new MixStats(0, 0, 0);
+    mixTxids.clear();
+    tx0Whitelist.clear();
+    mixOutputs.clear();
+    mixLogConvertIdMin = 0;
+    mixLogConverted = false;
   }
 }
@@ -11,6 +11,7 @@ import com.samourai.whirlpool.server.config.WhirlpoolServerConfig;
 import com.samourai.whirlpool.server.exceptions.IllegalInputException;
 import com.samourai.whirlpool.server.exceptions.ServerErrorCode;
 import com.samourai.whirlpool.server.services.fee.WhirlpoolFeeData;
+import com.samourai.whirlpool.server.utils.BoundedCache;
 import java.lang.invoke.MethodHandles;
 import java.util.List;
 import org.bitcoinj.core.ECKey;
@@ -23,12 +24,15 @@ import org.springframework.stereotype.Service;
 @Service
 public class InputValidationService {
   private static final Logger log = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
   private Tx0ValidationService tx0ValidationService;
   private WhirlpoolServerConfig whirlpoolServerConfig;
   private CryptoService cryptoService;
   private MessageSignUtilGeneric messageSignUtil;
   private BlockchainDataService blockchainDataService;
   private PoolService poolService;
+  private BoundedCache<String, Boolean> provenanceCache; // isLiquidity by tx & poolFee
+  private BoundedCache<String, ProvenanceRejection> provenanceRejectedCache;
 
   public InputValidationService(
       Tx0ValidationService tx0ValidationService,
@@ -36,13 +40,24 @@ public class InputValidationService {
       CryptoService cryptoService,
       MessageSignUtilGeneric messageSignUtil,
       BlockchainDataService blockchainDataService,
-      PoolService poolService) {
+      PoolService poolService,
+      MetricService metricService) {
     this.tx0ValidationService = tx0ValidationService;
     this.whirlpoolServerConfig = whirlpoolServerConfig;
     this.cryptoService = cryptoService;
     this.messageSignUtil = messageSignUtil;
     this.blockchainDataService = blockchainDataService;
     this.poolService = poolService;
+    WhirlpoolServerConfig.RegisterInputConfig registerInputConfig =
+        whirlpoolServerConfig.getRegisterInput();
+    int cacheSize = registerInputConfig.getProvenanceCacheSize();
+    this.provenanceCache =
+        new BoundedCache<>(cacheSize, registerInputConfig.getProvenanceCacheTtl() * 1000L);
+    // short ttl: rejection may be a transient failure
+    this.provenanceRejectedCache =
+        new BoundedCache<>(cacheSize, registerInputConfig.getProvenanceRejectedCacheTtl() * 1000L);
+    metricService.manageCache("provenance", provenanceCache);
+    metricService.manageCache("provenanceRejected", provenanceRejectedCache);
   }
 
   public void validateProvenance(
@@ -72,6 +87,40 @@ public class InputValidationService {
 
   protected boolean checkInputProvenance(
       Transaction tx, long txTime, PoolFee poolFee, boolean hasMixTxid) throws NotifiableException {
+    // same result for every output of a tx0 => skip fee decoding & validation when known
+    // (fee config version in key: results computed before a config change are never served)
+    String cacheKey =
+        tx.getHashAsString()
+            + ":"
+            + hasMixTxid
+            + ":"
+            + poolFee.getFeeValue()
+            + ":"
+            + poolFee.getFeeAccept()
+            + ":"
+            + whirlpoolServerConfig.getSamouraiFees().getVersion();
+    Boolean cachedIsLiquidity = provenanceCache.get(cacheKey);
+    if (cachedIsLiquidity != null) {
+      return cachedIsLiquidity;
+    }
+    ProvenanceRejection cachedRejection = provenanceRejectedCache.get(cacheKey);
+    if (cachedRejection != null) {
+      // fresh exception for each caller
+      throw new IllegalInputException(cachedRejection.errorCode, cachedRejection.message);
+    }
+
+    try {
+      boolean isLiquidity = computeInputProvenance(tx, txTime, poolFee, hasMixTxid);
+      provenanceCache.put(cacheKey, isLiquidity);
+      return isLiquidity;
+    } catch (IllegalInputException e) {
+      provenanceRejectedCache.put(cacheKey, new ProvenanceRejection(e));
+      throw e;
+    }
+  }
+
+  private boolean computeInputProvenance(
+      Transaction tx, long txTime, PoolFee poolFee, boolean hasMixTxid) throws NotifiableException {
     // is it a tx0?
     WhirlpoolFeeData feeData;
     try {
@@ -213,4 +262,19 @@ public class InputValidationService {
     }
     return pubkey;
   }
+
+  public void __reset() {
+    provenanceCache.clear();
+    provenanceRejectedCache.clear();
+  }
+
+  private static class ProvenanceRejection {
+    private int errorCode;
+    private String message;
+
+    ProvenanceRejection(IllegalInputException e) {
+      this.errorCode = e.getErrorCode();
+      this.message = e.getMessage();
+    }
+  }
 }
@@ -0,0 +1,92 @@
+package com.samourai.whirlpool.server.services;
+
+import com.samourai.whirlpool.server.config.WhirlpoolServerConfig;
+import java.lang.invoke.MethodHandles;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import javax.annotation.PreDestroy;
+import org.bouncycastle.crypto.AsymmetricCipherKeyPair;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+/** Pre-generates RSA key pairs from a refill thread, so starting a mix doesn't wait on keygen. */
+@Service
+public class KeyPairPoolService {
+  private static final Logger log = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+  private CryptoService cryptoService;
+  private MetricService metricService;
+
+  private BlockingQueue<AsymmetricCipherKeyPair> keyPairs;
+  private Thread refillThread; // null when disabled
+  private volatile boolean running;
+
+  @Autowired
+  public KeyPairPoolService(
+      CryptoService cryptoService,
+      MetricService metricService,
+      WhirlpoolServerConfig whirlpoolServerConfig) {
+    this.cryptoService = cryptoService;
+    this.metricService = metricService;
+
+    int depth = whirlpoolServerConfig.getKeyPairPool().getDepth();
+    this.keyPairs = new LinkedBlockingQueue<>(Math.max(1, depth));
+    metricService.manageKeyPairPool(keyPairs);
+
+    this.running = depth > 0;
+    if (running) {
+      this.refillThread = new Thread(() -> run(), "keyPairPoolRefill");
+      this.refillThread.setDaemon(true);
+      this.refillThread.setPriority(Thread.MIN_PRIORITY);
+      this.refillThread.start();
+    } else {
+      this.refillThread = null;
+    }
+  }
+
+  public AsymmetricCipherKeyPair nextKeyPair() {
+    AsymmetricCipherKeyPair keyPair = keyPairs.poll();
+    if (keyPair != null) {
+      return keyPair;
+    }
+    // pool empty or disabled => generate now
+    if (running) {
+      log.warn("keyPairPool is empty, generating keyPair synchronously");
+      metricService.onKeyPairPoolMiss();
+    }
+    return generateKeyPair();
+  }
+
+  private void run() {
+    while (running) {
+      try {
+        keyPairs.put(generateKeyPair()); // blocks while pool is full
+      } catch (InterruptedException e) {
+        // normal on shutdown
+      } catch (Exception e) {
+        log.error("keyPairPool refill failed", e);
+      }
+    }
+  }
+
+  private AsymmetricCipherKeyPair generateKeyPair() {
+    long start = System.nanoTime();
+    AsymmetricCipherKeyPair keyPair = cryptoService.generateKeyPair();
+    metricService.onKeyPairGenerate(System.nanoTime() - start);
+    return keyPair;
+  }
+
+  public int getDepth() {
+    return keyPairs.size();
+  }
+
+  @PreDestroy
+  public void stop() {
+    running = false;
+    if (refillThread != null) {
+      refillThread.interrupt();
+    }
+  }
+}
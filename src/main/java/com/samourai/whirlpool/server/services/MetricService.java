@@ -5,11 +5,17 @@ import com.samourai.whirlpool.server.beans.*;
 import com.samourai.whirlpool.server.beans.export.MixCsv;
 import com.samourai.whirlpool.server.beans.rpc.TxOutPoint;
 import com.samourai.whirlpool.server.persistence.to.MixTO;
+import com.samourai.whirlpool.server.utils.BoundedCache;
+import com.samourai.whirlpool.server.utils.TxidMap;
+import com.samourai.whirlpool.server.utils.timeout.TimeoutScheduler;
 import io.micrometer.core.instrument.Metrics;
 import io.micrometer.core.instrument.Tag;
 import java.lang.invoke.MethodHandles;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.apache.commons.lang3.RandomUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -26,6 +32,7 @@ public class MetricService {
 
   private static final String COUNTER_BLAME_TOTAL = "whirlpool_blame_total";
   private static final String COUNTER_BAN_TOTAL = "whirlpool_ban_total";
+  private static final String GAUGE_BAN_ACTIVE = "whirlpool_ban_active";
 
   private static final String GAUGE_MIX_START_TIME_SECONDS = "whirlpool_mix_start_time_seconds";
 
@@ -35,6 +42,43 @@ public class MetricService {
   private static final String GAUGE_POOL_MIXING_MUSTMIX = "whirlpool_pool_mixing_mustmix";
   private static final String GAUGE_POOL_MIXING_LIQUIDITY = "whirlpool_pool_mixing_liquidity";
 
+  private static final String COUNTER_BLAME_FLUSH_RETRY_TOTAL = "whirlpool_blame_flush_retry_total";
+  private static final String COUNTER_BLAME_FLUSH_DROPPED_TOTAL =
+      "whirlpool_blame_flush_dropped_total";
+
+  private static final String GAUGE_MIX_RESULT_QUEUE = "whirlpool_mix_result_queue";
+  private static final String COUNTER_MIX_RESULT_RETRY_TOTAL = "whirlpool_mix_result_retry_total";
+  private static final String COUNTER_MIX_RESULT_FAILURE_TOTAL =
+      "whirlpool_mix_result_failure_total";
+  private static final String COUNTER_MIX_RESULT_BACKPRESSURE_TOTAL =
+      "whirlpool_mix_result_backpressure_total";
+
+  private static final String TIMER_POOL_LOCK_WAIT = "whirlpool_pool_lock_wait_seconds";
+  private static final String GAUGE_POOL_LOCK_QUEUE = "whirlpool_pool_lock_queue";
+
+  private static final String GAUGE_KEYPAIR_POOL_DEPTH = "whirlpool_keypair_pool_depth";
+  private static final String COUNTER_KEYPAIR_POOL_MISS_TOTAL = "whirlpool_keypair_pool_miss_total";
+  private static final String TIMER_KEYPAIR_GENERATE = "whirlpool_keypair_generate_seconds";
+
+  private static final String TIMER_TIMEOUT_LAG = "whirlpool_timeout_lag_seconds";
+  private static final String GAUGE_TIMEOUT_SCHEDULED = "whirlpool_timeout_scheduled";
+
+  private static final String GAUGE_TASK_EXECUTOR_QUEUE = "whirlpool_task_executor_queue";
+  private static final String GAUGE_TASK_EXECUTOR_ACTIVE = "whirlpool_task_executor_active";
+  private static final String GAUGE_TASK_EXECUTOR_POOL = "whirlpool_task_executor_pool";
+  private static final String COUNTER_TASK_EXECUTOR_REJECTED_TOTAL =
+      "whirlpool_task_executor_rejected_total";
+  private static final String COUNTER_TASK_EXECUTOR_DROPPED_TOTAL =
+      "whirlpool_task_executor_dropped_total";
+
+  private static final String GAUGE_CACHE_SIZE = "whirlpool_cache_size";
+  private static final String COUNTER_CACHE_HIT_TOTAL = "whirlpool_cache_hit_total";
+  private static final String COUNTER_CACHE_MISS_TOTAL = "whirlpool_cache_miss_total";
+  private static final String COUNTER_CACHE_EVICTION_TOTAL = "whirlpool_cache_eviction_total";
+
+  private static final String GAUGE_TXID_INDEX_SIZE = "whirlpool_txid_index_size";
+  private static final String GAUGE_TXID_INDEX_BYTES = "whirlpool_txid_index_bytes";
+
   public MetricService() {}
 
   public void onMixResult(MixCsv mix, Collection<ConfirmedInput> inputs) {
@@ -63,10 +107,90 @@ public class MetricService {
     Metrics.counter(COUNTER_BLAME_TOTAL, "poolId", input.getPoolId()).increment();
   }
 
+  public void manageActiveBans(BanService banService) {
+    Metrics.gauge(GAUGE_BAN_ACTIVE, banService, b -> b.getNbActiveBans());
+  }
+
   public void onBan(RegisteredInput input) {
     Metrics.counter(COUNTER_BAN_TOTAL, "poolId", input.getPoolId()).increment();
   }
 
+  public void onBlameFlushRetry() {
+    Metrics.counter(COUNTER_BLAME_FLUSH_RETRY_TOTAL).increment();
+  }
+
+  public void onBlameFlushDropped(int nbBlames) {
+    Metrics.counter(COUNTER_BLAME_FLUSH_DROPPED_TOTAL).increment(nbBlames);
+  }
+
+  public void manageMixResultQueue(Collection<Mix> queue) {
+    Metrics.gauge(GAUGE_MIX_RESULT_QUEUE, queue, q -> q.size());
+  }
+
+  public void onMixResultRetry() {
+    Metrics.counter(COUNTER_MIX_RESULT_RETRY_TOTAL).increment();
+  }
+
+  public void onMixResultFailure() {
+    Metrics.counter(COUNTER_MIX_RESULT_FAILURE_TOTAL).increment();
+  }
+
+  public void onMixResultBackpressure() {
+    Metrics.counter(COUNTER_MIX_RESULT_BACKPRESSURE_TOTAL).increment();
+  }
+
+  public void manageKeyPairPool(Collection<?> keyPairs) {
+    Metrics.gauge(GAUGE_KEYPAIR_POOL_DEPTH, keyPairs, q -> q.size());
+  }
+
+  public void onKeyPairGenerate(long durationNanos) {
+    Metrics.timer(TIMER_KEYPAIR_GENERATE).record(durationNanos, TimeUnit.NANOSECONDS);
+  }
+
+  public void onKeyPairPoolMiss() {
+    Metrics.counter(COUNTER_KEYPAIR_POOL_MISS_TOTAL).increment();
+  }
+
+  public void manageTimeoutScheduler(TimeoutScheduler timeoutScheduler) {
+    timeoutScheduler.setLagTimer(Metrics.timer(TIMER_TIMEOUT_LAG));
+    Metrics.gauge(GAUGE_TIMEOUT_SCHEDULED, timeoutScheduler, s -> s.getNbScheduled());
+  }
+
+  public void manageTaskExecutor(ThreadPoolExecutor executor) {
+    Metrics.gauge(GAUGE_TASK_EXECUTOR_QUEUE, executor, e -> e.getQueue().size());
+    Metrics.gauge(GAUGE_TASK_EXECUTOR_ACTIVE, executor, e -> e.getActiveCount());
+    Metrics.gauge(GAUGE_TASK_EXECUTOR_POOL, executor, e -> e.getPoolSize());
+  }
+
+  public void manageVirtualTaskExecutor(AtomicInteger nbActiveTasks) {
+    // no queue with virtual threads: one thread per running task
+    Metrics.gauge(GAUGE_TASK_EXECUTOR_QUEUE, nbActiveTasks, n -> 0);
+    Metrics.gauge(GAUGE_TASK_EXECUTOR_ACTIVE, nbActiveTasks, n -> n.get());
+    Metrics.gauge(GAUGE_TASK_EXECUTOR_POOL, nbActiveTasks, n -> n.get());
+  }
+
+  public void onTaskExecutorRejected() {
+    Metrics.counter(COUNTER_TASK_EXECUTOR_REJECTED_TOTAL).increment();
+  }
+
+  public void onTaskExecutorDropped() {
+    Metrics.counter(COUNTER_TASK_EXECUTOR_DROPPED_TOTAL).increment();
+  }
+
+  public void manageCache(String cacheName, BoundedCache<?, ?> cache) {
+    Iterable<Tag> tags = Arrays.asList(Tag.of("cache", cacheName));
+    Metrics.gauge(GAUGE_CACHE_SIZE, tags, cache, c -> c.getSize());
+    Metrics.more().counter(COUNTER_CACHE_HIT_TOTAL, tags, cache, c -> c.getNbHits());
+    Metrics.more().counter(COUNTER_CACHE_MISS_TOTAL, tags, cache, c -> c.getNbMisses());
+    Metrics.more().counter(COUNTER_CACHE_EVICTION_TOTAL, tags, cache, c -> c.getNbEvictions());
+  }
+
+  public void manageTxidMap(String indexName, TxidMap txidMap) {
+    Iterable<Tag> tags = Arrays.asList(Tag.of("index", indexName));
+    Metrics.gauge(GAUGE_TXID_INDEX_SIZE, tags, txidMap, m -> m.getSize());
+    Metrics.gauge(GAUGE_TXID_INDEX_BYTES, tags, txidMap, m -> m.getMemoryBytes());
+  }
+
   public void manage(Pool pool) {
     // queue-mustMix
     Iterable<Tag> tagsTor =
@@ -111,6 +235,10 @@ public class MetricService {
         tags,
         pool,
         p -> p.getCurrentMix().getTimeStarted().getTime() / 1000);
+
+    // lock contention
+    pool.getLock().setWaitTimer(Metrics.timer(TIMER_POOL_LOCK_WAIT, tags));
+    Metrics.gauge(GAUGE_POOL_LOCK_QUEUE, tags, pool, p -> p.getLock().getQueueLength());
   }
 
   private long mock(long nb) {
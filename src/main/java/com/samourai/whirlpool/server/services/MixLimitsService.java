@@ -2,12 +2,15 @@ package com.samourai.whirlpool.server.services;
 
 import com.samourai.whirlpool.server.beans.*;
 import com.samourai.whirlpool.server.config.WhirlpoolServerConfig;
+import com.samourai.whirlpool.server.utils.MonitoredLock;
 import com.samourai.whirlpool.server.utils.timeout.ITimeoutWatcherListener;
+import com.samourai.whirlpool.server.utils.timeout.TimeoutScheduler;
 import com.samourai.whirlpool.server.utils.timeout.TimeoutWatcher;
 import java.lang.invoke.MethodHandles;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
+import javax.annotation.PreDestroy;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -17,22 +20,29 @@ import org.springframework.stereotype.Service;
 @Service
 public class MixLimitsService {
   private static final Logger log = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
-  private MixService mixService;;
+  private MixService mixService;
   private PoolService poolService;
   private BlameService blameService;
   private WhirlpoolServerConfig whirlpoolServerConfig;
 
   private Map<String, TimeoutWatcher> limitsWatchers;
+  private TimeoutScheduler timeoutScheduler;
 
   @Autowired
   public MixLimitsService(
       PoolService poolService,
       BlameService blameService,
-      WhirlpoolServerConfig whirlpoolServerConfig) {
+      WhirlpoolServerConfig whirlpoolServerConfig,
+      MetricService metricService) {
     this.poolService = poolService;
     this.blameService = blameService;
     this.whirlpoolServerConfig = whirlpoolServerConfig;
 
+    // one shared scheduler for all mixs
+    int nbThreads = Math.max(2, Runtime.getRuntime().availableProcessors());
+    this.timeoutScheduler = new TimeoutScheduler(nbThreads, "limitsWatcher-");
+    metricService.manageTimeoutScheduler(timeoutScheduler);
+
     this.__reset();
   }
 
@@ -118,33 +128,41 @@ public class MixLimitsService {
             if (log.isTraceEnabled()) {
               log.trace("limitsWatcher.onTimeout: " + mix.getMixId() + " " + mix.getMixStatus());
             }
-            switch (mix.getMixStatus()) {
-              case CONFIRM_INPUT:
-                poolService.confirmInputs(mix, mixService);
-                break;
-
-              case REGISTER_OUTPUT:
-                mixService.onTimeoutRegisterOutput(mix);
-                break;
-
-              case REVEAL_OUTPUT:
-                mixService.onTimeoutRevealOutput(mix);
-                break;
-
-              case SIGNING:
-                blameForSigningAndResetMix(mix);
-                break;
-
-              default:
-                if (log.isDebugEnabled()) {
-                  log.debug("limitsWatcher.onTimeout => ignored: mixStatus=" + mix.getMixStatus());
-                }
+            // mixStatus must not change while handling timeout
+            MonitoredLock lock = mix.getPool().getLock();
+            lock.lock();
+            try {
+              switch (mix.getMixStatus()) {
+                case CONFIRM_INPUT:
+                  poolService.confirmInputs(mix, mixService);
+                  break;
+
+                case REGISTER_OUTPUT:
+                  mixService.onTimeoutRegisterOutput(mix);
+                  break;
+
+                case REVEAL_OUTPUT:
+                  mixService.onTimeoutRevealOutput(mix);
+                  break;
+
+                case SIGNING:
+                  blameForSigningAndResetMix(mix);
+                  break;
+
+                default:
+                  if (log.isDebugEnabled()) {
+                    log.debug(
+                        "limitsWatcher.onTimeout => ignored: mixStatus=" + mix.getMixStatus());
+                  }
+              }
+            } finally {
+              lock.unlock();
             }
           }
         };
 
     TimeoutWatcher mixLimitsWatcher =
-        new TimeoutWatcher(listener, "limitsWatcher-" + mix.getMixId());
+        new TimeoutWatcher(listener, timeoutScheduler, "limitsWatcher-" + mix.getMixId());
     return mixLimitsWatcher;
   }
 
@@ -201,4 +219,9 @@ public class MixLimitsService {
 
     this.limitsWatchers = new ConcurrentHashMap<>();
   }
+
+  @PreDestroy
+  public void stop() {
+    timeoutScheduler.stop();
+  }
 }
@@ -0,0 +1,161 @@
+package com.samourai.whirlpool.server.services;
+
+import com.samourai.whirlpool.protocol.websocket.notifications.MixStatus;
+import com.samourai.whirlpool.server.beans.Mix;
+import com.samourai.whirlpool.server.beans.export.MixCsv;
+import java.lang.invoke.MethodHandles;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+/**
+ * Persists mix results from a dedicated writer thread, off the mix state-machine path. Mix txid is
+ * persisted synchronously, as liquidities remixing depends on it.
+ */
+@Service
+public class MixResultService {
+  private static final Logger log = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+  private static final int QUEUE_CAPACITY = 1000;
+  private static final int RETRY_ATTEMPTS = 5;
+  private static final long RETRY_DELAY = 2000;
+
+  private DbService dbService;
+  private ExportService exportService;
+  private MetricService metricService;
+  private MixRollupService mixRollupService;
+
+  private BlockingQueue<Mix> queue;
+  private Thread writerThread;
+  private volatile boolean running;
+
+  @Autowired
+  public MixResultService(
+      DbService dbService,
+      ExportService exportService,
+      MetricService metricService,
+      MixRollupService mixRollupService) {
+    this.dbService = dbService;
+    this.exportService = exportService;
+    this.metricService = metricService;
+    this.mixRollupService = mixRollupService;
+
+    this.queue = new LinkedBlockingQueue<>(QUEUE_CAPACITY);
+    metricService.manageMixResultQueue(queue);
+
+    this.running = true;
+    this.writerThread = new Thread(() -> run(), "mixResultWriter");
+    this.writerThread.setDaemon(true);
+    this.writerThread.start();
+  }
+
+  public void saveMixResult(Mix mix) {
+    if (MixStatus.SUCCESS.equals(mix.getMixStatus())) {
+      // persist txid before acknowledging: it must survive a restart for liquidities remixing
+      String txid = mix.getTx().getHashAsString();
+      long denomination = mix.getPool().getDenomination();
+      try {
+        dbService.saveMixTxid(txid, denomination);
+      } catch (Exception e) {
+        // keep it visible in memory, writer will retry
+        log.error("saveMixTxid failed, retrying from writer: " + txid, e);
+        dbService.saveMixTxidPending(txid, denomination);
+      }
+    }
+
+    if (!queue.offer(mix)) {
+      // queue full => hold state machine until writer catches up
+      log.warn("mixResult queue is full, waiting for writer... (" + queue.size() + " queued)");
+      metricService.onMixResultBackpressure();
+      try {
+        queue.put(mix);
+      } catch (InterruptedException e) {
+        log.error("mixResult lost: " + mix.getMixId(), e);
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  private void run() {
+    while (running || !queue.isEmpty()) {
+      try {
+        Mix mix = queue.poll(1, TimeUnit.SECONDS);
+        if (mix != null) {
+          write(mix);
+        }
+      } catch (InterruptedException e) {
+      } // normal
+    }
+  }
+
+  private void write(Mix mix) {
+    // save in database
+    retry("saveMix " + mix.getMixId(), () -> dbService.saveMix(mix));
+
+    // export to CSV
+    try {
+      MixCsv mixCsv = exportService.exportMix(mix);
+      metricService.onMixResult(mixCsv, mix.getInputs());
+    } catch (Exception e) {
+      log.error("", e);
+    }
+
+    // update stats
+    mixRollupService.onMixResult(mix);
+
+    if (MixStatus.SUCCESS.equals(mix.getMixStatus())) {
+      // retry mix txid when synchronous save failed
+      String txid = mix.getTx().getHashAsString();
+      long denomination = mix.getPool().getDenomination();
+      if (dbService.isMixTxidPending(txid, denomination)) {
+        retry("saveMixTxid " + txid, () -> dbService.saveMixTxid(txid, denomination));
+      }
+    }
+  }
+
+  private void retry(String operation, Runnable runnable) {
+    for (int attempt = 1; ; attempt++) {
+      try {
+        runnable.run();
+        return;
+      } catch (Exception e) {
+        if (attempt >= RETRY_ATTEMPTS) {
+          log.error(operation + " failed after " + attempt + " attempts", e);
+          metricService.onMixResultFailure();
+          return;
+        }
+        log.warn(operation + " failed (attempt " + attempt + "), retrying...", e);
+        metricService.onMixResultRetry();
+      }
+      try {
+        Thread.sleep(RETRY_DELAY * attempt);
+      } catch (InterruptedException e) {
+      } // stopping => retry now
+    }
+  }
+
+  @PreDestroy
+  public void stop() {
+    // write remaining results before exiting
+    running = false;
+    writerThread.interrupt();
+    try {
+      writerThread.join(QUEUE_CAPACITY * 100);
+    } catch (InterruptedException e) {
+    }
+
+    // writer is too slow => drain from this thread
+    Mix mix;
+    while ((mix = queue.poll()) != null) {
+      write(mix);
+    }
+  }
+
+  public int getQueueSize() {
+    return queue.size();
+  }
+}
@@ -0,0 +1,163 @@
+package com.samourai.whirlpool.server.services;
+
+import com.samourai.whirlpool.protocol.websocket.notifications.MixStatus;
+import com.samourai.whirlpool.server.beans.FailReason;
+import com.samourai.whirlpool.server.beans.Mix;
+import com.samourai.whirlpool.server.beans.MixRollup;
+import com.samourai.whirlpool.server.beans.MixRollupPeriod;
+import com.samourai.whirlpool.server.persistence.to.MixRollupProjection;
+import com.samourai.whirlpool.server.persistence.to.MixTO;
+import java.lang.invoke.MethodHandles;
+import java.sql.Timestamp;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+/** Per-pool hourly and daily mix aggregates, updated as each mix finishes. */
+@Service
+public class MixRollupService {
+  private static final Logger log = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+  private static final int LOAD_PAGE_SIZE = 10000;
+
+  private DbService dbService;
+  private Map<MixRollupPeriod, Map<String, TreeMap<Long, MixRollup>>> rollups; // by poolId, start
+
+  public MixRollupService(DbService dbService) {
+    this.dbService = dbService;
+    this.rollups = new EnumMap<>(MixRollupPeriod.class);
+    clear();
+    // loaded by loadMixRollups() on startup
+  }
+
+  private void clear() {
+    for (MixRollupPeriod period : MixRollupPeriod.values()) {
+      rollups.put(period, new HashMap<>());
+    }
+  }
+
+  // rebuild from mixs still in retention, then kept up-to-date by onMixResult()
+  public synchronized void loadMixRollups() {
+    clear();
+    long retentionMs = 0;
+    for (MixRollupPeriod period : MixRollupPeriod.values()) {
+      retentionMs = Math.max(retentionMs, period.getRetentionMs());
+    }
+    Timestamp createdMin = new Timestamp(System.currentTimeMillis() - retentionMs);
+
+    int nbMixs = 0;
+    long idMin = 0;
+    List<MixRollupProjection> page;
+    do {
+      page = dbService.findMixRollupProjections(createdMin, idMin, LOAD_PAGE_SIZE);
+      for (MixRollupProjection mix : page) {
+        add(
+            mix.getPoolId(),
+            mix.getCreated().getTime(),
+            mix.getMixStatus(),
+            mix.getFailReason(),
+            mix.getAnonymitySet(),
+            mix.getNbMustMix(),
+            mix.getNbLiquidities(),
+            mix.getFeesAmount(),
+            mix.getMixDuration());
+        idMin = mix.getId();
+      }
+      nbMixs += page.size();
+    } while (page.size() == LOAD_PAGE_SIZE);
+    if (log.isDebugEnabled()) {
+      log.debug("loadMixRollups: " + nbMixs + " mixs");
+    }
+  }
+
+  public void onMixResult(Mix mix) {
+    // bucket by persisted timestamp, as loadMixRollups() does
+    Timestamp created = mix.__getMixTO().map(MixTO::getCreated).orElse(null);
+    if (created == null) {
+      log.warn("onMixResult: mix not persisted, ignoring " + mix.getMixId());
+      return;
+    }
+    Long feesAmount = (mix.getTx() != null ? mix.getTx().getFee().getValue() : null);
+    add(
+        mix.getPool().getPoolId(),
+        created.getTime(),
+        mix.getMixStatus(),
+        mix.getFailReason(),
+        mix.getNbInputs(),
+        mix.getNbInputsMustMix(),
+        mix.getNbInputsLiquidities(),
+        feesAmount,
+        mix.computeMixDuration());
+  }
+
+  private synchronized void add(
+      String poolId,
+      long time,
+      MixStatus mixStatus,
+      FailReason failReason,
+      int anonymitySet,
+      int nbMustMix,
+      int nbLiquidities,
+      Long feesAmount,
+      int mixDuration) {
+    for (MixRollupPeriod period : MixRollupPeriod.values()) {
+      TreeMap<Long, MixRollup> byStart =
+          rollups.get(period).computeIfAbsent(poolId, id -> new TreeMap<>());
+      byStart
+          .computeIfAbsent(period.computeStart(time), s -> new MixRollup(poolId, period, s))
+          .add(
+              mixStatus,
+              failReason,
+              anonymitySet,
+              nbMustMix,
+              nbLiquidities,
+              feesAmount,
+              mixDuration);
+
+      // expire old buckets
+      byStart.headMap(time - period.getRetentionMs()).clear();
+    }
+  }
+
+  /** Buckets newest first, merged across pools when poolId is null. */
+  public synchronized List<MixRollup> getMixRollups(
+      String poolId, MixRollupPeriod period, int page, int size) {
+    return computeMixRollups(poolId, period).descendingMap().values().stream()
+        .skip((long) page * size)
+        .limit(size)
+        .collect(Collectors.toList());
+  }
+
+  public synchronized int getNbMixRollups(String poolId, MixRollupPeriod period) {
+    return computeMixRollups(poolId, period).size();
+  }
+
+  // copies, so that callers don't see concurrent updates
+  private NavigableMap<Long, MixRollup> computeMixRollups(String poolId, MixRollupPeriod period) {
+    Map<String, TreeMap<Long, MixRollup>> byPool = rollups.get(period);
+    NavigableMap<Long, MixRollup> result = new TreeMap<>();
+    if (poolId != null) {
+      TreeMap<Long, MixRollup> byStart = byPool.get(poolId);
+      if (byStart != null) {
+        for (MixRollup mixRollup : byStart.values()) {
+          result.put(mixRollup.getStart(), mixRollup.copy());
+        }
+      }
+      return result;
+    }
+    for (TreeMap<Long, MixRollup> byStart : byPool.values()) {
+      for (MixRollup mixRollup : byStart.values()) {
+        result
+            .computeIfAbsent(mixRollup.getStart(), s -> new MixRollup(null, period, s))
+            .merge(mixRollup);
+      }
+    }
+    return result;
+  }
+}
@@ -10,15 +10,18 @@ import com.samourai.whirlpool.protocol.websocket.messages.ConfirmInputResponse;
 import com.samourai.whirlpool.protocol.websocket.notifications.*;
 import com.samourai.whirlpool.server.beans.*;
 import com.samourai.whirlpool.server.beans.export.ActivityCsv;
-import com.samourai.whirlpool.server.beans.export.MixCsv;
 import com.samourai.whirlpool.server.beans.rpc.TxOutPoint;
 import com.samourai.whirlpool.server.config.WhirlpoolServerConfig;
 import com.samourai.whirlpool.server.exceptions.*;
 import com.samourai.whirlpool.server.services.rpc.RpcClientService;
+import com.samourai.whirlpool.server.utils.MonitoredLock;
 import com.samourai.whirlpool.server.utils.Utils;
 import java.lang.invoke.MethodHandles;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import org.apache.commons.lang3.StringUtils;
@@ -33,6 +36,7 @@ public class MixService {
   private static final Logger log = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
   private WSMessageService WSMessageService;
   private CryptoService cryptoService;
+  private KeyPairPoolService keyPairPoolService;
   private BlameService blameService;
   private DbService dbService;
   private RpcClientService rpcClientService;
@@ -41,17 +45,19 @@ public class MixService {
   private WhirlpoolServerConfig whirlpoolServerConfig;
   private PoolService poolService;
   private ExportService exportService;
-  private MetricService metricService;
+  private MixResultService mixResultService;
   private TaskService taskService;
-  private TxUtil txUtil;
+  private SignatureVerificationService signatureVerificationService;
 
   private Map<String, Mix> currentMixs;
+  private Map<String, Mix> currentMixsByInputsHash;
 
   private static int CONFIRM_INPUT_CHECK_DELAY = 3000;
 
   @Autowired
   public MixService(
       CryptoService cryptoService,
+      KeyPairPoolService keyPairPoolService,
       BlameService blameService,
       DbService dbService,
       RpcClientService rpcClientService,
@@ -61,11 +67,12 @@ public class MixService {
       MixLimitsService mixLimitsService,
       PoolService poolService,
       ExportService exportService,
-      MetricService metricService,
+      MixResultService mixResultService,
       TaskService taskService,
-      TxUtil txUtil,
+      SignatureVerificationService signatureVerificationService,
       WSSessionService wsSessionService) {
     this.cryptoService = cryptoService;
+    this.keyPairPoolService = keyPairPoolService;
     this.blameService = blameService;
     this.dbService = dbService;
     this.rpcClientService = rpcClientService;
@@ -76,9 +83,9 @@ public class MixService {
     this.mixLimitsService = mixLimitsService;
     this.poolService = poolService;
     this.exportService = exportService;
-    this.metricService = metricService;
+    this.mixResultService = mixResultService;
     this.taskService = taskService;
-    this.txUtil = txUtil;
+    this.signatureVerificationService = signatureVerificationService;
 
     this.__reset();
 
@@ -100,121 +107,101 @@ public class MixService {
       throw new IllegalInputException(ServerErrorCode.INPUT_REJECTED, e.getMessage());
     }
 
+    MixableReason mixableReason = checkMixable(mix, registeredInput, userHashOrNull);
+    switch (mixableReason) {
+      case MIXABLE:
+        return;
+      case INSUFFICIENT_MINER_FEE:
+        long missingMinerFees =
+            pool.getMinerFeeMix()
+                - (mix.computeMinerFeeAccumulated() + registeredInput.computeMinerFees(pool));
+        logMixStatus(mix);
+        log.warn(
+            "["
+                + pool.getPoolId()
+                + "] Queueing last mustMix: insufficient minerFees, "
+                + missingMinerFees
+                + " sats missing. "
+                + registeredInput);
+        break;
+      case ALREADY_CONFIRMED:
+        // input already confirmed => reject duplicate client
+        throw new IllegalInputException(
+            ServerErrorCode.INPUT_ALREADY_REGISTERED, mixableReason.getMessage());
+      default:
+        if (log.isTraceEnabled()) {
+          log.trace("[" + mix.getMixId() + "] " + mixableReason + ": " + registeredInput);
+        }
+        break;
+    }
+    // not mixable yet => enqueue in pool
+    throw new QueueInputException(mixableReason.getMessage(), registeredInput, pool.getPoolId());
+  }
+
+  /**
+   * Check whether an input can join a mix, without side effect nor exception. This is evaluated
+   * for each queued input when inviting to mix.
+   */
+  public MixableReason checkMixable(
+      Mix mix, RegisteredInput registeredInput, String userHashOrNull) {
+    Pool pool = mix.getPool();
+
     // check mix didn't start yet
     if (!MixStatus.CONFIRM_INPUT.equals(mix.getMixStatus())) {
-      // confirming input too late => enqueue in pool
-      String poolId = mix.getPool().getPoolId();
-      throw new QueueInputException("Mix already started", registeredInput, poolId);
+      return MixableReason.MIX_STARTED;
     }
     // verify mix not full
     if (mix.isFull()) {
-      throw new QueueInputException("Current mix is full", registeredInput, pool.getPoolId());
+      return MixableReason.MIX_FULL;
     }
 
     if (registeredInput.isLiquidity()) {
       // verify minMustMix
       int mustMixSlotsAvailable = pool.getAnonymitySet() - (mix.getNbInputsLiquidities() + 1);
       if (mustMixSlotsAvailable < pool.getMinMustMix()) {
-        throw new QueueInputException(
-            "Current mix is full for liquidity", registeredInput, pool.getPoolId());
+        return MixableReason.MIX_FULL_LIQUIDITY;
       }
     } else {
       // mustMix: verify minLiquidity
       int liquiditySlotsAvailable = pool.getAnonymitySet() - (mix.getNbInputsMustMix() + 1);
       if (liquiditySlotsAvailable < pool.getMinLiquidity()) {
-        throw new QueueInputException(
-            "Current mix is full for mustMix", registeredInput, pool.getPoolId());
+        return MixableReason.MIX_FULL_MUSTMIX;
       }
 
       // last mustMix: verify enough miner-fees to pay the mix
       if (liquiditySlotsAvailable == pool.getMinLiquidity()) {
         long inputMinerFees = registeredInput.computeMinerFees(pool);
         long minerFeeAccumulated = mix.computeMinerFeeAccumulated();
-        long missingMinerFees = pool.getMinerFeeMix() - (minerFeeAccumulated + inputMinerFees);
-        if (missingMinerFees > 0) {
-          logMixStatus(mix);
-          log.warn(
-              "["
-                  + pool.getPoolId()
-                  + "] Queueing last mustMix: insufficient minerFees, "
-                  + missingMinerFees
-                  + " sats missing. "
-                  + registeredInput);
-          throw new QueueInputException(
-              "Not enough minerFee for last mustMix slot", registeredInput, pool.getPoolId());
-        } else {
-          if (log.isTraceEnabled()) {
-            log.trace(
-                "["
-                    + pool.getPoolId()
-                    + "] Accepting last mustMix: sufficient minerFees, "
-                    + (-1 * missingMinerFees)
-                    + " sats excess. "
-                    + registeredInput);
-          }
+        if (minerFeeAccumulated + inputMinerFees < pool.getMinerFeeMix()) {
+          return MixableReason.INSUFFICIENT_MINER_FEE;
         }
       }
     }
 
     // verify unique userHash
     int maxInputsSameUserHash = whirlpoolServerConfig.getRegisterInput().getMaxInputsSameUserHash();
-    if (userHashOrNull != null) {
-      long countInputSameUserHash =
-          mix.getInputs()
-              .parallelStream()
-              .filter(input -> input.getUserHash().equals(userHashOrNull))
-              .count();
-      if ((countInputSameUserHash + 1) > maxInputsSameUserHash) {
-        if (log.isTraceEnabled()) {
-          log.trace(
-              "already "
-                  + countInputSameUserHash
-                  + " inputs with same userHash in "
-                  + mix.getMixId()
-                  + ": "
-                  + userHashOrNull);
-        }
-        throw new QueueInputException(
-            "Your wallet already registered for this mix", registeredInput, pool.getPoolId());
-      }
+    if (userHashOrNull != null
+        && mix.getNbInputsByUserHash(userHashOrNull) + 1 > maxInputsSameUserHash) {
+      return MixableReason.SAME_USER_HASH;
     }
 
     // verify max-inputs-same-hash
-    String inputHash = registeredInput.getOutPoint().getHash();
+    TxOutPoint outPoint = registeredInput.getOutPoint();
     int maxInputsSameHash = whirlpoolServerConfig.getRegisterInput().getMaxInputsSameHash();
-    long countInputsSameHash =
-        mix.getInputs()
-            .parallelStream()
-            .filter(input -> input.getRegisteredInput().getOutPoint().getHash().equals(inputHash))
-            .count();
-    if ((countInputsSameHash + 1) > maxInputsSameHash) {
-      if (log.isTraceEnabled()) {
-        log.trace("already " + countInputsSameHash + " inputs with same hash: " + inputHash);
-      }
-      throw new QueueInputException(
-          "Current mix is full for inputs with same hash", registeredInput, pool.getPoolId());
+    if (mix.getNbInputsByTxid(outPoint.getHash()) + 1 > maxInputsSameHash) {
+      return MixableReason.SAME_TX_HASH;
     }
 
     // verify no input address reuse with other inputs
-    String inputAddress = registeredInput.getOutPoint().getToAddress();
-    if (mix.getInputByAddress(inputAddress).isPresent()) {
-      throw new QueueInputException(
-          "Current mix is full for inputs with same address", registeredInput, pool.getPoolId());
+    if (mix.getInputByAddress(outPoint.getToAddress()).isPresent()) {
+      return MixableReason.SAME_ADDRESS;
     }
 
     // verify input not already confirmed
-    ConfirmedInput alreadyConfirmedInput = mix.findInput(registeredInput.getOutPoint());
-    if (alreadyConfirmedInput != null) {
-      // input already confirmed => reject duplicate client
-      throw new IllegalInputException(
-          ServerErrorCode.INPUT_ALREADY_REGISTERED, "Input already confirmed");
+    if (mix.findInput(outPoint) != null) {
+      return MixableReason.ALREADY_CONFIRMED;
     }
-  }
-
-  public void validateForConfirmInput(Mix mix, RegisteredInput registeredInput)
-      throws QueueInputException, IllegalInputException {
-    String userHash = registeredInput.getLastUserHash(); // may be null
-    validateOnConfirmInput(mix, registeredInput, userHash);
+    return MixableReason.MIXABLE;
   }
 
   private void validateOnConfirmInput(Mix mix, ConfirmedInput confirmedInput)
@@ -223,61 +210,68 @@ public class MixService {
     validateOnConfirmInput(mix, registeredInput, confirmedInput.getUserHash());
   }
 
-  public synchronized byte[] confirmInput(
+  public byte[] confirmInput(
       String mixId, String username, byte[] blindedBordereau, String userHash)
       throws IllegalInputException, MixException, QueueInputException {
     Mix mix = getMix(mixId);
+    MonitoredLock lock = mix.getPool().getLock();
+    lock.lock();
+    try {
+      // find confirming input
+      RegisteredInput registeredInput =
+          mix.removeConfirmingInputByUsername(username)
+              .orElseThrow(
+                  () ->
+                      new IllegalInputException(
+                          ServerErrorCode.SERVER_ERROR,
+                          "Confirming input not found: username=" + username));
 
-    // find confirming input
-    RegisteredInput registeredInput =
-        mix.removeConfirmingInputByUsername(username)
-            .orElseThrow(
-                () ->
-                    new IllegalInputException(
-                        ServerErrorCode.SERVER_ERROR,
-                        "Confirming input not found: username=" + username));
-
-    // set lastUserHash
-    registeredInput.setLastUserHash(userHash);
-
-    ConfirmedInput confirmedInput = new ConfirmedInput(registeredInput, userHash);
+      // set lastUserHash
+      registeredInput.setLastUserHash(userHash);
 
-    // last input validations
-    validateOnConfirmInput(mix, confirmedInput);
+      ConfirmedInput confirmedInput = new ConfirmedInput(registeredInput, userHash);
 
-    // sign bordereau to reply
-    byte[] signedBordereau = cryptoService.signBlindedOutput(blindedBordereau, mix.getKeyPair());
+      // last input validations
+      validateOnConfirmInput(mix, confirmedInput);
 
-    // add to mix inputs
-    mix.registerInput(confirmedInput);
-    log.info(
-        "["
-            + mixId
-            + "] confirmed "
-            + (registeredInput.isLiquidity() ? "liquidity" : "mustMix")
-            + ": "
-            + registeredInput.getOutPoint());
-    logMixStatus(mix);
+      // sign bordereau to reply
+      byte[] signedBordereau = cryptoService.signBlindedOutput(blindedBordereau, mix.getKeyPair());
 
-    // log activity
-    ActivityCsv activityCsv =
-        new ActivityCsv("CONFIRM_INPUT", mix.getPool().getPoolId(), registeredInput, null, null);
-    exportService.exportActivity(activityCsv);
-
-    // reply confirmInputResponse with signedBordereau
-    String signedBordereau64 = WhirlpoolProtocol.encodeBytes(signedBordereau);
-    final ConfirmInputResponse confirmInputResponse =
-        new ConfirmInputResponse(mixId, signedBordereau64);
-    WSMessageService.sendPrivate(username, confirmInputResponse);
-
-    // check mix ready, after a delay to make sure client processed confirmation
-    taskService.runOnce(
-        CONFIRM_INPUT_CHECK_DELAY,
-        () -> {
-          checkConfirmInputReady(mix);
-        });
-
-    return signedBordereau;
+      // add to mix inputs
+      mix.registerInput(confirmedInput);
+      log.info(
+          "["
+              + mixId
+              + "] confirmed "
+              + (registeredInput.isLiquidity() ? "liquidity" : "mustMix")
+              + ": "
+              + registeredInput.getOutPoint());
+      logMixStatus(mix);
+
+      // log activity
+      ActivityCsv activityCsv =
+          new ActivityCsv("CONFIRM_INPUT", mix.getPool().getPoolId(), registeredInput, null, null);
+      exportService.exportActivity(activityCsv);
+
+      // reply confirmInputResponse with signedBordereau
+      String signedBordereau64 = WhirlpoolProtocol.encodeBytes(signedBordereau);
+      final ConfirmInputResponse confirmInputResponse =
+          new ConfirmInputResponse(mixId, signedBordereau64);
+      WSMessageService.sendPrivate(username, confirmInputResponse);
+
+      // check mix ready, after a delay to make sure client processed confirmation
+      // (debounced: each confirmation postpones the pending check for this mix)
+      taskService.runDebounced(
+          "checkConfirmInputReady-" + mixId,
+          CONFIRM_INPUT_CHECK_DELAY,
+          () -> {
+            checkConfirmInputReady(mix);
+          });
+
+      return signedBordereau;
+    } finally {
+      lock.unlock();
+    }
   }
 
   private void checkConfirmInputReady(Mix mix) {
@@ -286,13 +280,33 @@ public class MixService {
       return;
     }
 
-    if (MixStatus.CONFIRM_INPUT.equals(mix.getMixStatus()) && isConfirmInputReady(mix)) {
-      // all inputs confirmed => REGISTER_OUTPUT
-      changeMixStatus(mix.getMixId(), MixStatus.REGISTER_OUTPUT);
+    if (MixStatus.CONFIRM_INPUT.equals(mix.getMixStatus())) {
+      isConfirmInputReady(
+          mix,
+          () -> {
+            // same lock hold as spent inputs revalidation
+            if (MixStatus.CONFIRM_INPUT.equals(mix.getMixStatus())
+                && isConfirmInputQuorumReached(mix)) {
+              // all inputs confirmed => REGISTER_OUTPUT
+              changeMixStatus(mix.getMixId(), MixStatus.REGISTER_OUTPUT);
+            }
+          });
     }
   }
 
   protected boolean isConfirmInputReady(Mix mix) {
+    return isConfirmInputReady(mix, null);
+  }
+
+  private boolean isConfirmInputReady(Mix mix, Runnable onReady) {
+    if (!isConfirmInputQuorumReached(mix)) {
+      return false;
+    }
+    // check for inputs spent in the meantime, then onReady under same lock hold
+    return revalidateInputsForSpent(mix, onReady);
+  }
+
+  private boolean isConfirmInputQuorumReached(Mix mix) {
     if (!mix.isFull()) {
       return false;
     }
@@ -302,62 +316,80 @@ public class MixService {
     if (!mix.hasMinLiquidityMixReached()) {
       return false;
     }
-    // check for inputs spent in the meantime
-    if (!revalidateInputsForSpent(mix)) {
-      return false;
-    }
     return true;
   }
 
-  public synchronized void registerOutputFailure(String inputsHash, String receiveAddress)
-      throws Exception {
-    Mix mix = getMixByInputsHash(inputsHash, MixStatus.REGISTER_OUTPUT);
-    mix.setLastReceiveAddressesRejected(receiveAddress);
-    log.info("[" + mix.getMixId() + "] registered output failure: " + receiveAddress);
+  public void registerOutputFailure(String inputsHash, String receiveAddress) throws Exception {
+    Mix mix = getMixByInputsHash(inputsHash);
+    MonitoredLock lock = mix.getPool().getLock();
+    lock.lock();
+    try {
+      checkMixStatus(mix, MixStatus.REGISTER_OUTPUT);
+      mix.setLastReceiveAddressesRejected(receiveAddress);
+      log.info("[" + mix.getMixId() + "] registered output failure: " + receiveAddress);
+    } finally {
+      lock.unlock();
+    }
   }
 
-  public synchronized Mix registerOutput(
+  public Mix registerOutput(
       String inputsHash, byte[] unblindedSignedBordereau, String receiveAddress, byte[] bordereau)
       throws Exception {
-    Mix mix = getMixByInputsHash(inputsHash, MixStatus.REGISTER_OUTPUT);
+    Mix mix = getMixByInputsHash(inputsHash);
+    boolean registerOutputReady;
+    MonitoredLock lock = mix.getPool().getLock();
+    lock.lock();
+    try {
+      checkMixStatus(mix, MixStatus.REGISTER_OUTPUT);
 
-    // verify bordereau not already registered
-    if (bordereau == null) {
-      throw new IllegalInputException(ServerErrorCode.INVALID_ARGUMENT, "Invalid bordereau");
-    }
-    if (mix.hasBordereau(bordereau)) {
-      throw new IllegalInputException(
-          ServerErrorCode.INPUT_ALREADY_REGISTERED, "Bordereau already registered");
-    }
+      // verify bordereau not already registered
+      if (bordereau == null) {
+        throw new IllegalInputException(ServerErrorCode.INVALID_ARGUMENT, "Invalid bordereau");
+      }
+      if (mix.hasBordereau(bordereau)) {
+        throw new IllegalInputException(
+            ServerErrorCode.INPUT_ALREADY_REGISTERED, "Bordereau already registered");
+      }
 
-    // verify receiveAddress not already registered
-    if (StringUtils.isEmpty(receiveAddress)) {
-      throw new IllegalInputException(ServerErrorCode.INVALID_ARGUMENT, "Invalid receiveAddress");
-    }
-    if (mix.hasReceiveAddress(receiveAddress)) {
-      throw new IllegalInputException(
-          ServerErrorCode.INPUT_ALREADY_REGISTERED, "receiveAddress already registered");
-    }
+      // verify receiveAddress not already registered
+      if (StringUtils.isEmpty(receiveAddress)) {
+        throw new IllegalInputException(ServerErrorCode.INVALID_ARGUMENT, "Invalid receiveAddress");
+      }
+      if (mix.hasReceiveAddress(receiveAddress)) {
+        throw new IllegalInputException(
+            ServerErrorCode.INPUT_ALREADY_REGISTERED, "receiveAddress already registered");
+      }
 
-    // verify unblindedSignedBordereau
-    if (!cryptoService.verifyUnblindedSignedBordereau(
-        bordereau, unblindedSignedBordereau, mix.getKeyPair())) {
-      throw new IllegalInputException(
-          ServerErrorCode.INVALID_ARGUMENT, "Invalid unblindedSignedBordereau");
-    }
+      // verify unblindedSignedBordereau
+      if (!cryptoService.verifyUnblindedSignedBordereau(
+          bordereau, unblindedSignedBordereau, mix.getKeyPair())) {
+        throw new IllegalInputException(
+            ServerErrorCode.INVALID_ARGUMENT, "Invalid unblindedSignedBordereau");
+      }
 
-    // verify no output address reuse with inputs
-    if (mix.getInputByAddress(receiveAddress).isPresent()) {
-      throw new IllegalInputException(
-          ServerErrorCode.INPUT_ALREADY_REGISTERED, "output already registered as input");
-    }
+      // verify no output address reuse with inputs
+      if (mix.getInputByAddress(receiveAddress).isPresent()) {
+        throw new IllegalInputException(
+            ServerErrorCode.INPUT_ALREADY_REGISTERED, "output already registered as input");
+      }
 
-    log.info("[" + mix.getMixId() + "] registered output: " + receiveAddress);
-    mix.registerOutput(receiveAddress, bordereau);
+      log.info("[" + mix.getMixId() + "] registered output: " + receiveAddress);
+      mix.registerOutput(receiveAddress, bordereau);
+      registerOutputReady = isRegisterOutputReady(mix);
+    } finally {
+      lock.unlock();
+    }
 
-    if (isRegisterOutputReady(mix)) {
-      String mixId = mix.getMixId();
-      changeMixStatus(mixId, MixStatus.SIGNING);
+    if (registerOutputReady) {
+      // check for inputs spent in the meantime
+      revalidateInputsForSpent(
+          mix,
+          () -> {
+            if (MixStatus.REGISTER_OUTPUT.equals(mix.getMixStatus())
+                && isRegisterOutputReady(mix)) {
+              changeMixStatus(mix.getMixId(), MixStatus.SIGNING);
+            }
+          });
     }
     return mix;
   }
@@ -396,36 +428,72 @@ public class MixService {
             + " mustMixs)");
   }
 
-  protected synchronized boolean isRegisterOutputReady(Mix mix) {
-    if (!isConfirmInputReady(mix)) {
+  protected boolean isRegisterOutputReady(Mix mix) {
+    if (!isConfirmInputQuorumReached(mix)) {
       return false;
     }
 
     return (mix.getReceiveAddresses().size() == mix.getNbInputs());
   }
 
-  protected boolean revalidateInputsForSpent(Mix mix) {
-    boolean mixAlreadyStarted = mix.isAlreadyStarted();
-    List<ConfirmedInput> spentInputs = new ArrayList<>();
+  /**
+   * Check inputs for spent with a single batched RPC call, without holding mix lock. Result is then
+   * applied under mix lock, followed by onValid when no input was spent.
+   */
+  private boolean revalidateInputsForSpent(Mix mix, Runnable onValid) {
+    List<ConfirmedInput> inputs = new ArrayList<>(mix.getInputs());
+    Collection<ConfirmedInput> spentInputs = findInputsSpent(inputs);
 
-    // check for spent inputs
-    for (ConfirmedInput confirmedInput : mix.getInputs()) {
-      TxOutPoint outPoint = confirmedInput.getRegisteredInput().getOutPoint();
-      if (!rpcClientService.isTxOutUnspent(outPoint.getHash(), outPoint.getIndex())) {
-        // input was spent in meantime
-        spentInputs.add(confirmedInput);
+    MonitoredLock lock = mix.getPool().getLock();
+    lock.lock();
+    try {
+      if (!onInputsRevalidated(mix, inputs, spentInputs)) {
+        return false; // not valid
+      }
+      if (onValid != null) {
+        onValid.run();
       }
+      return true;
+    } finally {
+      lock.unlock();
     }
+  }
 
-    if (spentInputs.isEmpty()) {
-      // no input spent => valid
-      return true;
+  private Collection<ConfirmedInput> findInputsSpent(Collection<ConfirmedInput> confirmedInputs) {
+    Map<String, ConfirmedInput> inputsByKey = new HashMap<>();
+    for (ConfirmedInput confirmedInput : confirmedInputs) {
+      TxOutPoint outPoint = confirmedInput.getRegisteredInput().getOutPoint();
+      inputsByKey.put(outPoint.toKey(), confirmedInput);
+    }
+    List<TxOutPoint> outPoints =
+        confirmedInputs.stream()
+            .map(confirmedInput -> confirmedInput.getRegisteredInput().getOutPoint())
+            .collect(Collectors.toList());
+    return rpcClientService.findTxOutsSpent(outPoints).stream()
+        .map(outPoint -> inputsByKey.get(outPoint.toKey()))
+        .collect(Collectors.toList());
+  }
+
+  private boolean onInputsRevalidated(
+      Mix mix, Collection<ConfirmedInput> inputsChecked, Collection<ConfirmedInput> spentInputs) {
+    // ignore inputs removed in the meantime
+    List<ConfirmedInput> spentInputsInMix =
+        spentInputs.stream()
+            .filter(
+                spentInput -> mix.findInput(spentInput.getRegisteredInput().getOutPoint()) != null)
+            .collect(Collectors.toList());
+
+    if (spentInputsInMix.isEmpty()) {
+      // no input spent => valid, unless inputs were added in the meantime
+      return inputsChecked.containsAll(mix.getInputs());
     }
 
     // there were input spent
-    for (ConfirmedInput spentInput : spentInputs) {
+    boolean mixAlreadyStarted = mix.isAlreadyStarted();
+    for (ConfirmedInput spentInput : spentInputsInMix) {
       log.warn(
-          "Found " + spentInputs.size() + " confirmed input(s) spent in meantime!", spentInput);
+          "Found " + spentInputsInMix.size() + " confirmed input(s) spent in meantime!",
+          spentInput);
 
       // remove spent input
       mix.unregisterInput(spentInput);
@@ -437,112 +505,202 @@ public class MixService {
     }
     if (mixAlreadyStarted) {
       // restart mix
-      String outpointKeysToBlame = computeOutpointKeysToBlame(spentInputs);
+      String outpointKeysToBlame = computeOutpointKeysToBlame(spentInputsInMix);
       goFail(mix, FailReason.SPENT, outpointKeysToBlame);
     }
     return false; // not valid
   }
 
-  public synchronized void revealOutput(String mixId, String username, String receiveAddress)
+  public void revealOutput(String mixId, String username, String receiveAddress)
       throws MixException, IllegalInputException {
-    Mix mix = getMix(mixId, MixStatus.REVEAL_OUTPUT);
+    Mix mix = getMix(mixId);
+    MonitoredLock lock = mix.getPool().getLock();
+    lock.lock();
+    try {
+      checkMixStatus(mix, MixStatus.REVEAL_OUTPUT);
 
-    // verify this username didn't already reveal his output
-    if (mix.hasRevealedOutputUsername(username)) {
-      log.warn("Rejecting already revealed username: " + username);
-      throw new IllegalInputException(
-          ServerErrorCode.INPUT_ALREADY_REGISTERED, "Output already revealed");
-    }
-    // verify this receiveAddress was not already revealed (someone could try to register 2 inputs
-    // and reveal same receiveAddress to block mix)
-    if (mix.hasRevealedReceiveAddress(receiveAddress)) {
-      log.warn("Rejecting already revealed receiveAddress: " + receiveAddress);
-      throw new IllegalInputException(
-          ServerErrorCode.INPUT_ALREADY_REGISTERED, "ReceiveAddress already revealed");
-    }
+      // verify this username didn't already reveal his output
+      if (mix.hasRevealedOutputUsername(username)) {
+        log.warn("Rejecting already revealed username: " + username);
+        throw new IllegalInputException(
+            ServerErrorCode.INPUT_ALREADY_REGISTERED, "Output already revealed");
+      }
+      // verify this receiveAddress was not already revealed (someone could try to register 2 inputs
+      // and reveal same receiveAddress to block mix)
+      if (mix.hasRevealedReceiveAddress(receiveAddress)) {
+        log.warn("Rejecting already revealed receiveAddress: " + receiveAddress);
+        throw new IllegalInputException(
+            ServerErrorCode.INPUT_ALREADY_REGISTERED, "ReceiveAddress already revealed");
+      }
 
-    // verify an output was registered with this receiveAddress
-    if (!mix.getReceiveAddresses().contains(receiveAddress)) {
-      throw new IllegalInputException(ServerErrorCode.INVALID_ARGUMENT, "Invalid receiveAddress");
-    }
+      // verify an output was registered with this receiveAddress
+      if (!mix.getReceiveAddresses().contains(receiveAddress)) {
+        throw new IllegalInputException(ServerErrorCode.INVALID_ARGUMENT, "Invalid receiveAddress");
+      }
 
-    mix.addRevealedOutput(username, receiveAddress);
-    log.info("[" + mixId + "] " + username + " revealed output");
+      mix.addRevealedOutput(username, receiveAddress);
+      log.info("[" + mixId + "] " + username + " revealed output");
 
-    if (isRevealOutputReady(mix)) {
-      blameForRevealOutputAndResetMix(mix);
+      if (isRevealOutputReady(mix)) {
+        blameForRevealOutputAndResetMix(mix);
+      }
+    } finally {
+      lock.unlock();
     }
   }
 
-  protected synchronized boolean isRevealOutputReady(Mix mix) {
+  protected boolean isRevealOutputReady(Mix mix) {
     // don't wait for the last one who didn't sign
     return (mix.getNbRevealedOutputs() == mix.getNbInputs() - 1);
   }
 
-  public synchronized void registerSignature(String mixId, String username, String[] witness60)
-      throws Exception {
-    Mix mix = getMix(mixId, MixStatus.SIGNING);
-
-    // check user
-    ConfirmedInput confirmedInput =
-        mix.getInputByUsername(username)
-            .orElseThrow(
-                () ->
-                    new IllegalInputException(
-                        ServerErrorCode.INPUT_REJECTED,
-                        "Input not found for signing username=" + username));
-    if (mix.getSignedByUsername(username)) {
-      throw new IllegalInputException(
-          ServerErrorCode.INPUT_ALREADY_REGISTERED, "User already signed, username=" + username);
+  public CompletableFuture<Void> registerSignature(
+      String mixId, String username, String[] witness60) throws Exception {
+    Mix mix = getMix(mixId);
+    MonitoredLock lock = mix.getPool().getLock();
+    TxOutPoint txOutPoint;
+    MixSigningContext signingContext;
+    Integer inputIndex;
+    lock.lock();
+    try {
+      checkRegisterSignature(mix, username);
+      ConfirmedInput confirmedInput = mix.getInputByUsername(username).get();
+      txOutPoint = confirmedInput.getRegisteredInput().getOutPoint();
+
+      signingContext = mix.getSigningContext();
+      inputIndex = signingContext.findInputIndex(txOutPoint.getHash(), txOutPoint.getIndex());
+    } finally {
+      lock.unlock();
     }
-    TxOutPoint txOutPoint = confirmedInput.getRegisteredInput().getOutPoint();
 
-    // sign
-    Transaction tx = mix.getTx();
-    Integer inputIndex = txUtil.findInputIndex(tx, txOutPoint.getHash(), txOutPoint.getIndex());
+    // verify without lock, then register signature
     TransactionWitness witness = Utils.witnessUnserialize64(witness60);
-    tx.setWitness(inputIndex, witness);
+    return signatureVerificationService
+        .verifySignInput(signingContext, inputIndex, witness, txOutPoint)
+        .handle(
+            (result, e) -> {
+              if (e != null) {
+                log.error("Invalid signature: verifySignInput failed", e);
+                throw new CompletionException(
+                    new IllegalInputException(
+                        ServerErrorCode.INVALID_ARGUMENT, "Invalid signature"));
+              }
+              try {
+                return onSignatureVerified(mix, username, inputIndex, witness);
+              } catch (Exception ee) {
+                throw new CompletionException(ee);
+              }
+            })
+        .thenCompose(
+            registerSignaturesReady -> {
+              if (!registerSignaturesReady) {
+                return CompletableFuture.completedFuture(null);
+              }
+              return signatureVerificationService.runAsync(() -> broadcastIfValid(mix));
+            });
+  }
 
-    // verify
+  private boolean onSignatureVerified(
+      Mix mix, String username, int inputIndex, TransactionWitness witness) throws Exception {
+    MonitoredLock lock = mix.getPool().getLock();
+    lock.lock();
     try {
-      txUtil.verifySignInput(tx, inputIndex, txOutPoint.getValue(), txOutPoint.getScriptBytes());
-    } catch (Exception e) {
-      log.error("Invalid signature: verifySignInput failed", e);
-      throw new IllegalInputException(ServerErrorCode.INVALID_ARGUMENT, "Invalid signature");
+      // mix may have changed in the meantime
+      checkRegisterSignature(mix, username);
+
+      // signature success
+      Transaction tx = mix.getTx();
+      tx.setWitness(inputIndex, witness);
+      mix.setTx(tx);
+      mix.setSignedByUsername(username);
+      log.info("[" + mix.getMixId() + "]  " + username + " registered signature");
+      return isRegisterSignaturesReady(mix);
+    } finally {
+      lock.unlock();
     }
+  }
 
-    // signature success
-    mix.setTx(tx);
-    mix.setSignedByUsername(username);
-    log.info("[" + mixId + "]  " + username + " registered signature");
+  private void broadcastIfValid(Mix mix) {
+    // check for inputs spent in the meantime
+    AtomicBoolean broadcastReady = new AtomicBoolean(false);
+    revalidateInputsForSpent(
+        mix,
+        () -> {
+          if (MixStatus.SIGNING.equals(mix.getMixStatus())
+              && isRegisterSignaturesReady(mix)
+              && !mix.isBroadcasting()) {
+            // only transition under lock: broadcast RPC runs without lock
+            mix.setBroadcasting();
+            broadcastReady.set(true);
+          }
+        });
+    if (broadcastReady.get()) {
+      broadcast(mix);
+    }
+  }
+
+  private void checkRegisterSignature(Mix mix, String username)
+      throws MixException, IllegalInputException {
+    checkMixStatus(mix, MixStatus.SIGNING);
+
+    // check user
+    if (!mix.getInputByUsername(username).isPresent()) {
+      throw new IllegalInputException(
+          ServerErrorCode.INPUT_REJECTED, "Input not found for signing username=" + username);
+    }
+    if (mix.getSignedByUsername(username)) {
+      throw new IllegalInputException(
+          ServerErrorCode.INPUT_ALREADY_REGISTERED, "User already signed, username=" + username);
+    }
+  }
 
-    if (isRegisterSignaturesReady(mix)) {
+  private void broadcast(Mix mix) {
+    // mix is broadcasting => any error must end it, or it would never be recovered
+    try {
       // check final transaction
+      Transaction tx = mix.getTx();
       tx.verify();
 
       log.info("Tx to broadcast: \n" + tx + "\nRaw: " + TxUtil.getInstance().getTxHex(tx));
-      try {
-        rpcClientService.broadcastTransaction(tx);
-        goSuccess(mix);
-      } catch (BroadcastException e) {
-        log.error("Unable to broadcast tx: ", e);
-        goFail(mix, FailReason.FAIL_BROADCAST, e.getFailInfo());
-      }
+      rpcClientService.broadcastTransaction(tx);
+      goSuccess(mix);
+    } catch (BroadcastException e) {
+      log.error("Unable to broadcast tx: ", e);
+      goFail(mix, FailReason.FAIL_BROADCAST, e.getFailInfo());
+    } catch (Exception e) {
+      log.error("Unexpected error on broadcast: ", e);
+      goFail(mix, FailReason.FAIL_BROADCAST, e.getMessage());
     }
   }
 
-  protected synchronized boolean isRegisterSignaturesReady(Mix mix) {
+  protected boolean isRegisterSignaturesReady(Mix mix) {
     if (!isRegisterOutputReady(mix)) {
       return false;
     }
     return (mix.getNbSignatures() == mix.getNbInputs());
   }
 
-  public synchronized void changeMixStatus(String mixId, MixStatus mixStatus) {
+  public void changeMixStatus(String mixId, MixStatus mixStatus) {
     log.info("[MIX " + mixId + "] => " + mixStatus);
-    Mix mix = null;
+    Mix mix;
     try {
       mix = getMix(mixId);
+    } catch (MixException e) {
+      log.error("Unexpected mix error", e);
+      return;
+    }
+    MonitoredLock lock = mix.getPool().getLock();
+    lock.lock();
+    try {
+      changeMixStatus(mix, mixStatus);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private void changeMixStatus(Mix mix, MixStatus mixStatus) {
+    String mixId = mix.getMixId();
+    try {
       if (mixStatus.equals(mix.getMixStatus())) {
         // just in case...
         log.error(
@@ -555,6 +713,7 @@ public class MixService {
         try {
           Transaction tx = computeTransaction(mix);
           mix.setTx(tx);
+          mix.setSigningContext(new MixSigningContext(tx));
 
           log.info("Txid: " + tx.getHashAsString());
           if (log.isDebugEnabled()) {
@@ -568,6 +727,10 @@ public class MixService {
 
       // update mix status
       mix.setMixStatusAndTime(mixStatus);
+      if (mixStatus == MixStatus.REGISTER_OUTPUT) {
+        // index frozen inputsHash for registerOutput
+        currentMixsByInputsHash.put(mix.getInputsHash(), mix);
+      }
 
       if (mixStatus == MixStatus.REGISTER_OUTPUT) {
         // silently requeue late confirming inputs
@@ -598,7 +761,7 @@ public class MixService {
       boolean mixOver = (mixStatus == MixStatus.SUCCESS || mixStatus == MixStatus.FAIL);
       // save mix before notifying users
       if (mixOver) {
-        saveMixResult(mix, mixStatus);
+        mixResultService.saveMixResult(mix);
       }
 
       mixLimitsService.onMixStatusChange(mix);
@@ -615,9 +778,7 @@ public class MixService {
       }
     } catch (MixException e) {
       log.error("Unexpected mix error", e);
-      if (mix != null) {
-        onMixOver(mix);
-      }
+      onMixOver(mix);
     }
   }
 
@@ -635,7 +796,7 @@ public class MixService {
     MixStatusNotification mixStatusNotification = null;
     switch (mix.getMixStatus()) {
       case REGISTER_OUTPUT:
-        String inputsHash = mix.computeInputsHash();
+        String inputsHash = mix.getInputsHash();
         mixStatusNotification = new RegisterOutputMixStatusNotification(mixId, inputsHash);
         break;
       case REVEAL_OUTPUT:
@@ -659,10 +820,6 @@ public class MixService {
   }
 
   private Mix getMix(String mixId) throws MixException {
-    return getMix(mixId, null);
-  }
-
-  private Mix getMix(String mixId, MixStatus mixStatus) throws MixException {
     Mix mix = currentMixs.get(mixId);
     if (mix == null) {
       if (log.isDebugEnabled()) {
@@ -670,39 +827,37 @@ public class MixService {
       }
       throw new MixException("Mix not found: " + mixId);
     }
-    if (mixStatus != null && !mixStatus.equals(mix.getMixStatus())) {
-      throw new MixException(
-          "Operation not permitted for current mix status: expected="
-              + mixStatus
-              + ", actual="
-              + mix.getMixStatus());
-    }
     return mix;
   }
 
-  private Mix getMixByInputsHash(String inputsHash, MixStatus mixStatus)
-      throws IllegalInputException, MixException {
-    List<Mix> mixsFound =
-        currentMixs
-            .values()
-            .parallelStream()
-            .filter(mix -> mix.computeInputsHash().equals(inputsHash))
-            .collect(Collectors.toList());
-    if (mixsFound.size() != 1) {
+  private Mix getMixByInputsHash(String inputsHash) throws MixException {
+    Mix mix = currentMixsByInputsHash.get(inputsHash);
+    if (mix == null) {
+      // mixStatus may have been changed without indexing, compare frozen inputsHash
+      mix =
+          currentMixs.values().stream()
+              .filter(m -> inputsHash.equals(m.getInputsHash()))
+              .findFirst()
+              .orElse(null);
+    }
+    if (mix == null) {
       log.warn("REGISTER_OUTPUT rejected: no current mix for inputsHash=" + inputsHash);
       // reject with generic message because we may not be responsible of this error (ie: another
       // client disconnected during the mix)
       throw new MixException("Mix failed");
     }
-    Mix mix = mixsFound.get(0);
-    if (mixStatus != null && !mixStatus.equals(mix.getMixStatus())) {
+    return mix;
+  }
+
+  // mixStatus may change until we hold the mix lock, so check it once locked
+  private void checkMixStatus(Mix mix, MixStatus mixStatus) throws MixException {
+    if (!mixStatus.equals(mix.getMixStatus())) {
       throw new MixException(
           "Operation not permitted for current mix status: expected="
               + mixStatus
               + ", actual="
               + mix.getMixStatus());
     }
-    return mix;
   }
 
   private Transaction computeTransaction(Mix mix) throws Exception {
@@ -756,22 +911,34 @@ public class MixService {
   }
 
   public void onTimeoutRegisterOutput(Mix mix) {
-    if (mix.getReceiveAddresses().isEmpty()) {
-      // no output registered at all => no legit user suffered, skip REVEAL_OUTPUT and immediately
-      // restart round
-      goFail(mix, FailReason.FAIL_REGISTER_OUTPUTS, null);
-    } else {
-      // we have legit output registered => go REVEAL_OUTPUT to blame the others
-      log.info(
-          "["
-              + mix.getMixId()
-              + "] REGISTER_OUTPUT time over (mix failed, blaming users who didn't register output...)");
-      changeMixStatus(mix.getMixId(), MixStatus.REVEAL_OUTPUT);
+    MonitoredLock lock = mix.getPool().getLock();
+    lock.lock();
+    try {
+      if (mix.getReceiveAddresses().isEmpty()) {
+        // no output registered at all => no legit user suffered, skip REVEAL_OUTPUT and immediately
+        // restart round
+        goFail(mix, FailReason.FAIL_REGISTER_OUTPUTS, null);
+      } else {
+        // we have legit output registered => go REVEAL_OUTPUT to blame the others
+        log.info(
+            "["
+                + mix.getMixId()
+                + "] REGISTER_OUTPUT time over (mix failed, blaming users who didn't register output...)");
+        changeMixStatus(mix.getMixId(), MixStatus.REVEAL_OUTPUT);
+      }
+    } finally {
+      lock.unlock();
     }
   }
 
   public void onTimeoutRevealOutput(Mix mix) {
-    blameForRevealOutputAndResetMix(mix);
+    MonitoredLock lock = mix.getPool().getLock();
+    lock.lock();
+    try {
+      blameForRevealOutputAndResetMix(mix);
+    } finally {
+      lock.unlock();
+    }
   }
 
   private void blameForRevealOutputAndResetMix(Mix mix) {
@@ -800,22 +967,31 @@ public class MixService {
     return outpointKeysToBlameStr;
   }
 
-  public synchronized void goFail(Mix mix, FailReason failReason, String failInfo) {
-    if (MixStatus.FAIL.equals(mix.getMixStatus())) {
-      // may happen when multiple inputs disconnect simultaneously
-      log.info("Ignoring goFail(): mix already failed");
-      return;
-    }
+  public void goFail(Mix mix, FailReason failReason, String failInfo) {
+    MonitoredLock lock = mix.getPool().getLock();
+    lock.lock();
+    try {
+      if (MixStatus.FAIL.equals(mix.getMixStatus())) {
+        // may happen when multiple inputs disconnect simultaneously
+        log.info("Ignoring goFail(): mix already failed");
+        return;
+      }
+      if (mix.isBroadcasting() && !FailReason.FAIL_BROADCAST.equals(failReason)) {
+        // fully signed: only the broadcast result can end the mix
+        log.info("Ignoring goFail(): mix is broadcasting");
+        return;
+      }
 
-    // clear failed mix outputs
-    log.warn("Deleting failed mixOutputs: " + mix.getReceiveAddresses().size());
-    for (String mixOutput : mix.getReceiveAddresses()) {
-      dbService.deleteMixOutput(mixOutput);
-    }
+      // clear failed mix outputs
+      log.warn("Deleting failed mixOutputs: " + mix.getReceiveAddresses().size());
+      dbService.deleteMixOutputs(mix.getReceiveAddresses());
 
-    mix.setFailReason(failReason);
-    mix.setFailInfo(failInfo);
-    changeMixStatus(mix.getMixId(), MixStatus.FAIL);
+      mix.setFailReason(failReason);
+      mix.setFailInfo(failInfo);
+      changeMixStatus(mix.getMixId(), MixStatus.FAIL);
+    } finally {
+      lock.unlock();
+    }
   }
 
   public void goSuccess(Mix mix) {
@@ -826,43 +1002,50 @@ public class MixService {
     Map<String, String> clientDetails = ImmutableMap.of("u", username);
 
     for (Mix mix : getCurrentMixs()) {
-      if (!MixStatus.FAIL.equals(mix.getMixStatus())) {
-        String lastReceiveAddressRejected = mix.getLastReceiveAddressesRejected();
-
-        Collection<ConfirmedInput> confirmedInputsToBlame = mix.onDisconnect(username);
-        if (!confirmedInputsToBlame.isEmpty()) {
-          confirmedInputsToBlame.forEach(
-              confirmedInput -> {
-                // blame
-                BlameReason blameReason = BlameReason.DISCONNECT;
-                Map<String, String> detailsParam = null;
-                if (lastReceiveAddressRejected != null) {
-                  // we can't be sure that rejected output is related to disconnected input
-                  // blameReason = BlameReason.REJECTED_OUTPUT;
-                  detailsParam = ImmutableMap.of("receiveAddress", lastReceiveAddressRejected);
-                }
-                blameService.blame(confirmedInput.getRegisteredInput(), blameReason, mix);
-
-                // log activity
-                ActivityCsv activityCsv =
-                    new ActivityCsv(
-                        blameReason.name(),
-                        mix.getPool().getPoolId(),
-                        confirmedInput.getRegisteredInput(),
-                        detailsParam,
-                        clientDetails);
-                exportService.exportActivity(activityCsv);
-              });
-
-          // restart mix
-          String failInfo = computeOutpointKeysToBlame(confirmedInputsToBlame);
-          FailReason failReason = FailReason.DISCONNECT;
-          if (lastReceiveAddressRejected != null) {
-            // failReason = FailReason.REJECTED_OUTPUT;
-            failInfo += " " + lastReceiveAddressRejected;
+      MonitoredLock lock = mix.getPool().getLock();
+      lock.lock();
+      try {
+        // fully signed mix doesn't need connected clients anymore
+        if (!MixStatus.FAIL.equals(mix.getMixStatus()) && !mix.isBroadcasting()) {
+          String lastReceiveAddressRejected = mix.getLastReceiveAddressesRejected();
+
+          Collection<ConfirmedInput> confirmedInputsToBlame = mix.onDisconnect(username);
+          if (!confirmedInputsToBlame.isEmpty()) {
+            confirmedInputsToBlame.forEach(
+                confirmedInput -> {
+                  // blame
+                  BlameReason blameReason = BlameReason.DISCONNECT;
+                  Map<String, String> detailsParam = null;
+                  if (lastReceiveAddressRejected != null) {
+                    // we can't be sure that rejected output is related to disconnected input
+                    // blameReason = BlameReason.REJECTED_OUTPUT;
+                    detailsParam = ImmutableMap.of("receiveAddress", lastReceiveAddressRejected);
+                  }
+                  blameService.blame(confirmedInput.getRegisteredInput(), blameReason, mix);
+
+                  // log activity
+                  ActivityCsv activityCsv =
+                      new ActivityCsv(
+                          blameReason.name(),
+                          mix.getPool().getPoolId(),
+                          confirmedInput.getRegisteredInput(),
+                          detailsParam,
+                          clientDetails);
+                  exportService.exportActivity(activityCsv);
+                });
+
+            // restart mix
+            String failInfo = computeOutpointKeysToBlame(confirmedInputsToBlame);
+            FailReason failReason = FailReason.DISCONNECT;
+            if (lastReceiveAddressRejected != null) {
+              // failReason = FailReason.REJECTED_OUTPUT;
+              failInfo += " " + lastReceiveAddressRejected;
+            }
+            goFail(mix, failReason, failInfo);
           }
-          goFail(mix, failReason, failInfo);
         }
+      } finally {
+        lock.unlock();
       }
     }
   }
@@ -873,6 +1056,7 @@ public class MixService {
 
   public void __reset() {
     currentMixs = new ConcurrentHashMap<>();
+    currentMixsByInputsHash = new ConcurrentHashMap<>();
     mixLimitsService.__reset();
     poolService
         .getPools()
@@ -884,35 +1068,15 @@ public class MixService {
 
   public Mix __nextMix(Pool pool) {
     String mixId = Utils.generateUniqueString();
-    Mix mix = new Mix(mixId, pool, cryptoService);
-    startMix(mix);
-    return mix;
-  }
-
-  private void saveMixResult(Mix mix, MixStatus mixStatus) {
-    // save in database
-    try {
-      dbService.saveMix(mix);
-    } catch (Exception e) {
-      log.error("", e);
-    }
-
-    // export to CSV
+    Mix mix = new Mix(mixId, pool, keyPairPoolService.nextKeyPair(), cryptoService);
+    MonitoredLock lock = pool.getLock();
+    lock.lock();
     try {
-      MixCsv mixCsv = exportService.exportMix(mix);
-      metricService.onMixResult(mixCsv, mix.getInputs());
-    } catch (Exception e) {
-      log.error("", e);
-    }
-
-    if (mixStatus == MixStatus.SUCCESS) {
-      // save mix txid
-      try {
-        dbService.saveMixTxid(mix.getTx().getHashAsString(), mix.getPool().getDenomination());
-      } catch (Exception e) {
-        log.error("", e);
-      }
+      startMix(mix);
+    } finally {
+      lock.unlock();
     }
+    return mix;
   }
 
   private void onMixOver(Mix mix) {
@@ -930,11 +1094,14 @@ public class MixService {
     __nextMix(mix.getPool());
   }
 
-  private synchronized void startMix(Mix mix) {
+  private void startMix(Mix mix) {
     Pool pool = mix.getPool();
     Mix currentMix = pool.getCurrentMix();
     if (currentMix != null) {
       currentMixs.remove(currentMix.getMixId());
+      if (currentMix.getInputsHash() != null) {
+        currentMixsByInputsHash.remove(currentMix.getInputsHash());
+      }
       // TODO disconnect all clients (except liquidities?)
     }
 
@@ -947,16 +1114,10 @@ public class MixService {
     mixLimitsService.manage(mix);
   }
 
-  public Predicate<Map.Entry<String, RegisteredInput>> computeFilterInputMixable(Mix mix) {
-    return entry -> {
-      RegisteredInput registeredInput = entry.getValue();
-      try {
-        validateForConfirmInput(mix, registeredInput);
-        return true; // mixable
-      } catch (Exception e) {
-        return false; // not mixable
-      }
-    };
+  public Predicate<RegisteredInput> computeFilterInputMixable(Mix mix) {
+    return registeredInput ->
+        MixableReason.MIXABLE.equals(
+            checkMixable(mix, registeredInput, registeredInput.getLastUserHash()));
   }
 
   public MixLimitsService __getMixLimitsService() {
@@ -11,6 +11,7 @@ import com.samourai.whirlpool.server.beans.rpc.TxOutPoint;
 import com.samourai.whirlpool.server.config.WhirlpoolServerConfig;
 import com.samourai.whirlpool.server.exceptions.IllegalInputException;
 import com.samourai.whirlpool.server.exceptions.ServerErrorCode;
+import com.samourai.whirlpool.server.utils.MonitoredLock;
 import java.lang.invoke.MethodHandles;
 import java.util.Collection;
 import java.util.Comparator;
@@ -148,7 +149,7 @@ public class PoolService {
     return poolStatusNotification;
   }
 
-  public synchronized RegisteredInput registerInput(
+  public RegisteredInput registerInput(
       String poolId,
       String username,
       boolean liquidity,
@@ -157,32 +158,37 @@ public class PoolService {
       String lastUserHash)
       throws NotifiableException {
     Pool pool = getPool(poolId);
+    MonitoredLock lock = pool.getLock();
+    lock.lock();
+    try {
+      // verify balance
+      long inputBalance = txOutPoint.getValue();
+      if (!pool.checkInputBalance(inputBalance, liquidity)) {
+        long balanceMin = pool.computePremixBalanceMin(liquidity);
+        long balanceMax = pool.computePremixBalanceMax(liquidity);
+        throw new IllegalInputException(
+            ServerErrorCode.INPUT_REJECTED,
+            "Invalid input balance (expected: "
+                + balanceMin
+                + "-"
+                + balanceMax
+                + ", actual:"
+                + txOutPoint.getValue()
+                + ")");
+      }
 
-    // verify balance
-    long inputBalance = txOutPoint.getValue();
-    if (!pool.checkInputBalance(inputBalance, liquidity)) {
-      long balanceMin = pool.computePremixBalanceMin(liquidity);
-      long balanceMax = pool.computePremixBalanceMax(liquidity);
-      throw new IllegalInputException(
-          ServerErrorCode.INPUT_REJECTED,
-          "Invalid input balance (expected: "
-              + balanceMin
-              + "-"
-              + balanceMax
-              + ", actual:"
-              + txOutPoint.getValue()
-              + ")");
-    }
-
-    RegisteredInput registeredInput =
-        new RegisteredInput(poolId, username, liquidity, txOutPoint, ip, lastUserHash);
+      RegisteredInput registeredInput =
+          new RegisteredInput(poolId, username, liquidity, txOutPoint, ip, lastUserHash);
 
-    // verify confirmations
-    if (!isUtxoConfirmed(txOutPoint, liquidity)) {
-      throw new IllegalInputException(ServerErrorCode.INPUT_REJECTED, "Input is not confirmed");
+      // verify confirmations
+      if (!isUtxoConfirmed(txOutPoint, liquidity)) {
+        throw new IllegalInputException(ServerErrorCode.INPUT_REJECTED, "Input is not confirmed");
+      }
+      queueToPool(pool, registeredInput);
+      return registeredInput;
+    } finally {
+      lock.unlock();
     }
-    queueToPool(pool, registeredInput);
-    return registeredInput;
   }
 
   private void queueToPool(Pool pool, RegisteredInput registeredInput) throws NotifiableException {
@@ -227,7 +233,7 @@ public class PoolService {
     mix.registerConfirmingInput(registeredInput);
 
     // add delay as we are called from LimitsWatcher which may run just after an input registered
-    taskService.runOnce(
+    taskService.runDelayed(
         INVITE_INPUT_DELAY,
         () -> {
           // send invite to mix
@@ -237,15 +243,21 @@ public class PoolService {
   }
 
   public void confirmInputs(Mix mix, MixService mixService) {
-    int liquiditiesToAdd;
-    if (mix.hasMinMustMixAndFeeReached()) {
-      // enough mustMixs => add missing liquidities
-      liquiditiesToAdd = mix.getPool().getAnonymitySet() - mix.getNbInputs();
-    } else {
-      // not enough mustMixs => add minimal liquidities, then missing mustMixs
-      liquiditiesToAdd = mix.getMinLiquidityMixRemaining();
+    MonitoredLock lock = mix.getPool().getLock();
+    lock.lock();
+    try {
+      int liquiditiesToAdd;
+      if (mix.hasMinMustMixAndFeeReached()) {
+        // enough mustMixs => add missing liquidities
+        liquiditiesToAdd = mix.getPool().getAnonymitySet() - mix.getNbInputs();
+      } else {
+        // not enough mustMixs => add minimal liquidities, then missing mustMixs
+        liquiditiesToAdd = mix.getMinLiquidityMixRemaining();
+      }
+      confirmInputs(mix, mixService, liquiditiesToAdd);
+    } finally {
+      lock.unlock();
     }
-    confirmInputs(mix, mixService, liquiditiesToAdd);
   }
 
   private void confirmInputs(Mix mix, MixService mixService, int liquiditiesToAdd) {
@@ -289,10 +301,8 @@ public class PoolService {
     }
   }
 
-  private synchronized int inviteToMix(
-      Mix mix, boolean liquidity, int maxInvites, MixService mixService) {
-    Predicate<Map.Entry<String, RegisteredInput>> filterInputMixable =
-        mixService.computeFilterInputMixable(mix);
+  private int inviteToMix(Mix mix, boolean liquidity, int maxInvites, MixService mixService) {
+    Predicate<RegisteredInput> filterInputMixable = mixService.computeFilterInputMixable(mix);
     InputPool queue =
         (liquidity ? mix.getPool().getLiquidityQueue() : mix.getPool().getMustMixQueue());
     int nbInvited = 0;
@@ -303,7 +313,10 @@ public class PoolService {
       }
 
       // stop when no more input to invite
-      Optional<RegisteredInput> registeredInput = queue.removeRandom(filterInputMixable);
+      Optional<RegisteredInput> registeredInput =
+          liquidity
+              ? queue.removeRandom(filterInputMixable)
+              : queue.removeRandom(filterInputMixable, computeMustMixMinValue(mix));
       if (!registeredInput.isPresent()) {
         break;
       }
@@ -332,6 +345,17 @@ public class PoolService {
     return nbInvited;
   }
 
+  private long computeMustMixMinValue(Mix mix) {
+    Pool pool = mix.getPool();
+    int liquiditySlotsAvailable = pool.getAnonymitySet() - (mix.getNbInputsMustMix() + 1);
+    if (liquiditySlotsAvailable != pool.getMinLiquidity()) {
+      return 0; // not the last mustMix slot
+    }
+    // last mustMix slot: only inputs paying the missing miner fees can complete the mix
+    long missingMinerFees = pool.getMinerFeeMix() - mix.computeMinerFeeAccumulated();
+    return pool.getDenomination() + Math.max(0, missingMinerFees);
+  }
+
   public void resetLastUserHash(Mix mix) {
     mix.getPool().getLiquidityQueue().resetLastUserHash();
     mix.getPool().getMustMixQueue().resetLastUserHash();
@@ -9,6 +9,8 @@ import com.samourai.whirlpool.server.config.WhirlpoolServerConfig;
 import com.samourai.whirlpool.server.exceptions.IllegalInputException;
 import com.samourai.whirlpool.server.exceptions.ServerErrorCode;
 import java.lang.invoke.MethodHandles;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import org.bitcoinj.core.NetworkParameters;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -25,6 +27,9 @@ public class RegisterOutputService {
   private WhirlpoolServerConfig whirlpoolServerConfig;
   private MessageSignUtilGeneric messageSignUtil;
 
+  // receiveAddresses being registered, to reject concurrent registrations across pools
+  private Set<String> registeringOutputs;
+
   @Autowired
   public RegisterOutputService(
       MixService mixService,
@@ -37,6 +42,7 @@ public class RegisterOutputService {
     this.formatsUtil = formatsUtil;
     this.whirlpoolServerConfig = whirlpoolServerConfig;
     this.messageSignUtil = messageSignUtil;
+    this.registeringOutputs = ConcurrentHashMap.newKeySet();
   }
 
   public void checkOutput(String receiveAddress, String signature) throws Exception {
@@ -56,26 +62,35 @@ public class RegisterOutputService {
     }
   }
 
-  public synchronized Mix registerOutput(
+  public Mix registerOutput(
       String inputsHash, byte[] unblindedSignedBordereau, String receiveAddress, byte[] bordereau)
       throws Exception {
 
     try {
-      // validate
-      validate(receiveAddress);
+      // reserve receiveAddress until revoked
+      if (!registeringOutputs.add(receiveAddress)) {
+        throw new IllegalInputException(
+            ServerErrorCode.INPUT_ALREADY_REGISTERED, "Output already registered");
+      }
+      try {
+        // validate
+        validate(receiveAddress);
 
-      // failMode
-      whirlpoolServerConfig.checkFailMode(FailMode.REGISTER_OUTPUT);
+        // failMode
+        whirlpoolServerConfig.checkFailMode(FailMode.REGISTER_OUTPUT);
 
-      // register
-      Mix mix =
-          mixService.registerOutput(
-              inputsHash, unblindedSignedBordereau, receiveAddress, bordereau);
+        // register
+        Mix mix =
+            mixService.registerOutput(
+                inputsHash, unblindedSignedBordereau, receiveAddress, bordereau);
 
-      // revoke output
-      dbService.saveMixOutput(receiveAddress);
+        // revoke output
+        dbService.saveMixOutput(receiveAddress);
 
-      return mix;
+        return mix;
+      } finally {
+        registeringOutputs.remove(receiveAddress);
+      }
     } catch (Exception e) {
       log.info("registerOutput failed for " + receiveAddress + ": " + e.getMessage());
       mixService.registerOutputFailure(inputsHash, receiveAddress);
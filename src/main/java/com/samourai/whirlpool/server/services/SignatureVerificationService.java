@@ -0,0 +1,102 @@
+package com.samourai.whirlpool.server.services;
+
+import com.samourai.wallet.util.TxUtil;
+import com.samourai.whirlpool.server.beans.MixSigningContext;
+import com.samourai.whirlpool.server.beans.rpc.TxOutPoint;
+import com.samourai.whirlpool.server.config.WhirlpoolServerConfig;
+import java.lang.invoke.MethodHandles;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.annotation.PreDestroy;
+import org.bitcoinj.core.NetworkParameters;
+import org.bitcoinj.core.Transaction;
+import org.bitcoinj.core.TransactionWitness;
+import org.bitcoinj.core.VerificationException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+/** Verifies signatures and finalizes mixs on a dedicated executor, outside of pool locks. */
+@Service
+public class SignatureVerificationService {
+  private static final Logger log = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+  private TxUtil txUtil;
+  private NetworkParameters params;
+  private ExecutorService executor;
+
+  @Autowired
+  public SignatureVerificationService(TxUtil txUtil, WhirlpoolServerConfig whirlpoolServerConfig) {
+    this.txUtil = txUtil;
+    this.params = whirlpoolServerConfig.getNetworkParameters();
+
+    int nbThreads = Math.max(2, Runtime.getRuntime().availableProcessors());
+    AtomicInteger threadId = new AtomicInteger();
+    this.executor =
+        Executors.newFixedThreadPool(
+            nbThreads,
+            runnable -> {
+              String name = "signatureVerifier-" + threadId.incrementAndGet();
+              Thread thread = new Thread(runnable, name);
+              thread.setDaemon(true);
+              return thread;
+            });
+  }
+
+  /**
+   * Verify a witness without touching the shared mix transaction: P2WPKH inputs are checked with
+   * cached BIP143 midstates, others against a private copy of the transaction.
+   */
+  public CompletableFuture<Void> verifySignInput(
+      MixSigningContext signingContext,
+      int inputIndex,
+      TransactionWitness witness,
+      TxOutPoint txOutPoint) {
+    return CompletableFuture.runAsync(
+        () -> {
+          try {
+            doVerifySignInput(signingContext, inputIndex, witness, txOutPoint);
+          } catch (Exception e) {
+            throw new RuntimeException(e);
+          }
+        },
+        executor);
+  }
+
+  private void doVerifySignInput(
+      MixSigningContext signingContext,
+      int inputIndex,
+      TransactionWitness witness,
+      TxOutPoint txOutPoint)
+      throws Exception {
+    long value = txOutPoint.getValue();
+    byte[] scriptBytes = txOutPoint.getScriptBytes();
+    if (MixSigningContext.isP2WPKH(scriptBytes, witness)) {
+      if (!signingContext.verifyP2WPKH(inputIndex, witness, value, scriptBytes)) {
+        throw new VerificationException("Invalid P2WPKH signature");
+      }
+      return;
+    }
+    Transaction tx = new Transaction(params, signingContext.getTxBytes());
+    tx.setWitness(inputIndex, witness);
+    txUtil.verifySignInput(tx, inputIndex, value, scriptBytes);
+  }
+
+  public CompletableFuture<Void> runAsync(Runnable runnable) {
+    return CompletableFuture.runAsync(runnable, executor)
+        .whenComplete(
+            (result, e) -> {
+              if (e != null) {
+                log.error("", e);
+              }
+            });
+  }
+
+  @PreDestroy
+  public void stop() {
+    executor.shutdown();
+  }
+}
@@ -1,6 +1,7 @@
 package com.samourai.whirlpool.server.services;
 
 import java.lang.invoke.MethodHandles;
+import java.util.concurrent.CompletableFuture;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -17,8 +18,9 @@ public class SigningService {
     this.mixService = mixService;
   }
 
-  public void signing(String mixId, String username, String[] witness64) throws Exception {
+  public CompletableFuture<Void> signing(String mixId, String username, String[] witness64)
+      throws Exception {
     // signing
-    mixService.registerSignature(mixId, username, witness64);
+    return mixService.registerSignature(mixId, username, witness64);
   }
 }
@@ -1,25 +1,110 @@
 package com.samourai.whirlpool.server.services;
 
 import java.lang.invoke.MethodHandles;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ScheduledFuture;
+import javax.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 import org.springframework.stereotype.Service;
 
+/** Runs mix tasks on a dedicated scheduler, not delayed by @Scheduled database jobs. */
 @Service
 public class TaskService {
   private static final Logger log = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+  private static final long TICK = 100; // delayed tasks due in same tick run together
+  private static final int POOL_SIZE = 2;
+  public static final String THREAD_NAME_PREFIX = "mixTask-";
 
-  private TaskScheduler taskScheduler;
+  private ThreadPoolTaskScheduler taskScheduler;
+  private Map<Long, List<Runnable>> delayedTasksByTick;
+  private Map<String, Long> debounceDeadlines; // by key
 
-  public TaskService(TaskScheduler taskScheduler) {
-    this.taskScheduler = taskScheduler;
+  public TaskService() {
+    this.taskScheduler = new ThreadPoolTaskScheduler();
+    taskScheduler.setPoolSize(POOL_SIZE);
+    taskScheduler.setThreadNamePrefix(THREAD_NAME_PREFIX);
+    taskScheduler.setDaemon(true);
+    taskScheduler.initialize();
+    this.delayedTasksByTick = new ConcurrentHashMap<>();
+    this.debounceDeadlines = new ConcurrentHashMap<>();
   }
 
   public ScheduledFuture runOnce(long delayMilliSeconds, Runnable runnable) {
     return taskScheduler.schedule(
         runnable, new Date(System.currentTimeMillis() + delayMilliSeconds));
   }
+
+  /** Run after delay, batched with other tasks due in the same tick. */
+  public void runDelayed(long delayMilliSeconds, Runnable runnable) {
+    long tick = (System.currentTimeMillis() + delayMilliSeconds + TICK - 1) / TICK;
+    delayedTasksByTick.compute(
+        tick,
+        (t, tasks) -> {
+          if (tasks == null) {
+            // first task for this tick => schedule one pass for the whole tick
+            tasks = new ArrayList<>();
+            taskScheduler.schedule(() -> runTick(tick), new Date(tick * TICK));
+          }
+          tasks.add(runnable);
+          return tasks;
+        });
+  }
+
+  /**
+   * Run once delay has elapsed since the last call with same key: each call postpones the pending
+   * run. Calls with same key are expected to run the same task.
+   */
+  public void runDebounced(String key, long delayMilliSeconds, Runnable runnable) {
+    long deadline = System.currentTimeMillis() + delayMilliSeconds;
+    if (debounceDeadlines.put(key, deadline) == null) {
+      // no run pending for this key
+      runDelayed(delayMilliSeconds, () -> runDebouncedIfDue(key, runnable));
+    }
+  }
+
+  private void runDebouncedIfDue(String key, Runnable runnable) {
+    while (true) {
+      Long deadline = debounceDeadlines.get(key);
+      if (deadline == null) {
+        return;
+      }
+      long timeToWait = deadline - System.currentTimeMillis();
+      if (timeToWait > 0) {
+        // postponed meanwhile => wait again
+        runDelayed(timeToWait, () -> runDebouncedIfDue(key, runnable));
+        return;
+      }
+      // release key first, so that later calls get a new run
+      if (debounceDeadlines.remove(key, deadline)) {
+        runnable.run();
+        return;
+      }
+      // postponed concurrently => check again
+    }
+  }
+
+  @PreDestroy
+  public void stop() {
+    taskScheduler.shutdown();
+  }
+
+  private void runTick(long tick) {
+    List<Runnable> tasks = delayedTasksByTick.remove(tick);
+    if (tasks == null) {
+      return;
+    }
+    for (Runnable task : tasks) {
+      try {
+        task.run();
+      } catch (Exception e) {
+        log.error("delayed task failed", e);
+      }
+    }
+  }
 }
@@ -1,12 +1,21 @@
 package com.samourai.whirlpool.server.services.rpc;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.samourai.javaserver.utils.ServerUtils;
+import com.samourai.wallet.util.JSONUtils;
 import com.samourai.wallet.util.TxUtil;
+import com.samourai.whirlpool.server.beans.rpc.TxOutPoint;
 import com.samourai.whirlpool.server.config.WhirlpoolServerConfig;
 import com.samourai.whirlpool.server.exceptions.BroadcastException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.lang.invoke.MethodHandles;
+import java.net.HttpURLConnection;
 import java.net.URL;
-import java.util.Optional;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.stream.Collectors;
 import org.bitcoinj.core.Transaction;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -112,6 +121,81 @@ public class JSONRpcClientServiceImpl implements RpcClientService {
     return false;
   }
 
+  @Override
+  public Collection<TxOutPoint> findTxOutsSpent(Collection<TxOutPoint> txOutPoints) {
+    List<TxOutPoint> outPoints = new ArrayList<>(txOutPoints);
+    if (outPoints.isEmpty()) {
+      return outPoints;
+    }
+    try {
+      // batch gettxout: one request for all outPoints
+      List<Map<String, Object>> requests = new ArrayList<>();
+      for (int i = 0; i < outPoints.size(); i++) {
+        TxOutPoint outPoint = outPoints.get(i);
+        Map<String, Object> request = new LinkedHashMap<>();
+        request.put("jsonrpc", "1.0");
+        request.put("id", i);
+        request.put("method", "gettxout");
+        request.put("params", Arrays.asList(outPoint.getHash(), outPoint.getIndex(), true));
+        requests.add(request);
+      }
+      JsonNode responses = batchQuery(requests);
+      if (!responses.isArray() || responses.size() != outPoints.size()) {
+        throw new Exception("Unexpected batch response: " + responses);
+      }
+
+      List<TxOutPoint> spentOutPoints = new ArrayList<>();
+      for (JsonNode response : responses) {
+        JsonNode error = response.get("error");
+        if (error != null && !error.isNull()) {
+          throw new Exception("gettxout error: " + error);
+        }
+        // gettxout returns null result when spent or not found
+        JsonNode result = response.get("result");
+        if (result == null || result.isNull()) {
+          spentOutPoints.add(outPoints.get(response.get("id").asInt()));
+        }
+      }
+      return spentOutPoints;
+    } catch (Exception e) {
+      log.error("batch gettxout error, fallback to single requests", e);
+      return outPoints.stream()
+          .filter(outPoint -> !isTxOutUnspent(outPoint.getHash(), outPoint.getIndex()))
+          .collect(Collectors.toList());
+    }
+  }
+
+  private JsonNode batchQuery(List<Map<String, Object>> requests) throws Exception {
+    ObjectMapper objectMapper = JSONUtils.getInstance().getObjectMapper();
+    WhirlpoolServerConfig.RpcClientConfig config = whirlpoolServerConfig.getRpcClient();
+    String auth =
+        Base64.getEncoder()
+            .encodeToString(
+                (config.getUser() + ":" + config.getPassword()).getBytes(StandardCharsets.UTF_8));
+
+    HttpURLConnection conn = (HttpURLConnection) rpcClient.rpcURL.openConnection();
+    try {
+      // same timeouts as rpcClient
+      conn.setConnectTimeout(BitcoinJSONRPCClient.CONNECT_TIMEOUT);
+      conn.setReadTimeout(BitcoinJSONRPCClient.READ_TIMEOUT);
+      conn.setDoOutput(true);
+      conn.setRequestMethod("POST");
+      conn.setRequestProperty("Content-Type", "application/json");
+      conn.setRequestProperty("Authorization", "Basic " + auth);
+      try (OutputStream out = conn.getOutputStream()) {
+        out.write(objectMapper.writeValueAsBytes(requests));
+      }
+      if (conn.getResponseCode() != HttpURLConnection.HTTP_OK) {
+        throw new Exception("HTTP " + conn.getResponseCode() + " " + conn.getResponseMessage());
+      }
+      try (InputStream in = conn.getInputStream()) {
+        return objectMapper.readTree(in);
+      }
+    } finally {
+      conn.disconnect();
+    }
+  }
+
   @Override
   public void broadcastTransaction(Transaction tx) throws BroadcastException {
     String txid = tx.getHashAsString();
@@ -6,15 +6,18 @@ import com.samourai.wallet.segwit.bech32.Bech32UtilGeneric;
 import com.samourai.wallet.util.RandomUtil;
 import com.samourai.wallet.util.TxUtil;
 import com.samourai.whirlpool.server.beans.rpc.RpcTransaction;
+import com.samourai.whirlpool.server.beans.rpc.TxOutPoint;
 import com.samourai.whirlpool.server.services.CryptoService;
 import java.io.File;
 import java.lang.invoke.MethodHandles;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.nio.file.StandardOpenOption;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Collectors;
 import org.aspectj.util.FileUtil;
 import org.bitcoinj.core.NetworkParameters;
 import org.bitcoinj.core.Transaction;
@@ -36,6 +39,7 @@ public class MockRpcClientServiceImpl implements RpcClientService {
 
   private Map<String, RpcRawTransactionResponse> mockTransactions;
   private Map<String, Boolean> mockSpentOutputs;
+  private RuntimeException mockBroadcastError;
 
   public static final int MOCK_TX_CONFIRMATIONS = 99;
   private static final long MOCK_TX_TIME = 900000;
@@ -56,6 +60,9 @@ public class MockRpcClientServiceImpl implements RpcClientService {
 
   @Override
   public void broadcastTransaction(Transaction tx) {
+    if (mockBroadcastError != null) {
+      throw mockBroadcastError;
+    }
     // mock result TX to simulate broadcast
     String txid = tx.getHashAsString();
     log.warn("NOT broadcasting tx (mock-tx-broadcast=1): " + txid);
@@ -87,6 +94,13 @@ public class MockRpcClientServiceImpl implements RpcClientService {
     return !mockSpentOutputs.containsKey(txid + ":" + index);
   }
 
+  @Override
+  public Collection<TxOutPoint> findTxOutsSpent(Collection<TxOutPoint> txOutPoints) {
+    return txOutPoints.stream()
+        .filter(txOutPoint -> !isTxOutUnspent(txOutPoint.getHash(), txOutPoint.getIndex()))
+        .collect(Collectors.toList());
+  }
+
   @Override
   public int getBlockHeight() {
     return RandomUtil.random(999999, 999999999);
@@ -103,9 +117,14 @@ public class MockRpcClientServiceImpl implements RpcClientService {
     mockSpentOutputs.put(txid + ":" + index, true);
   }
 
+  public void mockBroadcastError(RuntimeException e) {
+    mockBroadcastError = e;
+  }
+
   public void resetMock() {
     mockTransactions = new HashMap<>();
     mockSpentOutputs = new HashMap<>();
+    mockBroadcastError = null;
   }
 
   // ------------
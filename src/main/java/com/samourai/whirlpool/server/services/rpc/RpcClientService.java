@@ -1,6 +1,8 @@
 package com.samourai.whirlpool.server.services.rpc;
 
+import com.samourai.whirlpool.server.beans.rpc.TxOutPoint;
 import com.samourai.whirlpool.server.exceptions.BroadcastException;
+import java.util.Collection;
 import java.util.Optional;
 import org.bitcoinj.core.Transaction;
 
@@ -11,6 +13,9 @@ public interface RpcClientService {
 
   boolean isTxOutUnspent(String txid, long index);
 
+  // returns outPoints spent or not found, with a single request
+  Collection<TxOutPoint> findTxOutsSpent(Collection<TxOutPoint> txOutPoints);
+
   void broadcastTransaction(Transaction tx) throws BroadcastException;
 
   int getBlockHeight() throws Exception;
@@ -0,0 +1,105 @@
+package com.samourai.whirlpool.server.utils;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/** LRU cache bounded by size and time-to-live, with hit/miss/eviction counters. */
+public class BoundedCache<K, V> {
+  private final int maxSize;
+  private final long ttlMs;
+  private final LinkedHashMap<K, Entry<V>> entries;
+
+  private long nbHits;
+  private long nbMisses;
+  private long nbEvictions;
+
+  public BoundedCache(int maxSize, long ttlMs) {
+    this.maxSize = maxSize;
+    this.ttlMs = ttlMs;
+    this.entries = new LinkedHashMap<>(16, 0.75f, true); // access-order
+    this.nbHits = 0;
+    this.nbMisses = 0;
+    this.nbEvictions = 0;
+  }
+
+  public synchronized V get(K key) {
+    Entry<V> entry = entries.get(key);
+    if (entry != null && isExpired(entry, System.currentTimeMillis())) {
+      entries.remove(key);
+      nbEvictions++;
+      entry = null;
+    }
+    if (entry == null) {
+      nbMisses++;
+      return null;
+    }
+    nbHits++;
+    return entry.value;
+  }
+
+  public synchronized void put(K key, V value) {
+    if (maxSize <= 0) {
+      return; // cache disabled
+    }
+    entries.put(key, new Entry<>(value, System.currentTimeMillis()));
+
+    // evict least recently used
+    Iterator<Entry<V>> it = entries.values().iterator();
+    while (entries.size() > maxSize && it.hasNext()) {
+      it.next();
+      it.remove();
+      nbEvictions++;
+    }
+  }
+
+  public synchronized void remove(K key) {
+    entries.remove(key);
+  }
+
+  /** Drop expired entries, which would otherwise stay until accessed or pushed out. */
+  public synchronized void purgeExpired() {
+    long now = System.currentTimeMillis();
+    Iterator<Map.Entry<K, Entry<V>>> it = entries.entrySet().iterator();
+    while (it.hasNext()) {
+      if (isExpired(it.next().getValue(), now)) {
+        it.remove();
+        nbEvictions++;
+      }
+    }
+  }
+
+  public synchronized void clear() {
+    entries.clear();
+  }
+
+  private boolean isExpired(Entry<V> entry, long now) {
+    return now - entry.created > ttlMs;
+  }
+
+  public synchronized int getSize() {
+    return entries.size();
+  }
+
+  public synchronized long getNbHits() {
+    return nbHits;
+  }
+
+  public synchronized long getNbMisses() {
+    return nbMisses;
+  }
+
+  public synchronized long getNbEvictions() {
+    return nbEvictions;
+  }
+
+  private static class Entry<V> {
+    private final V value;
+    private final long created;
+
+    Entry(V value, long created) {
+      this.value = value;
+      this.created = created;
+    }
+  }
+}
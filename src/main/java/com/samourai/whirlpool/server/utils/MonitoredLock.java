@@ -0,0 +1,43 @@
+package com.samourai.whirlpool.server.utils;
+
+import io.micrometer.core.instrument.Timer;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/** Reentrant lock recording time spent waiting for it. */
+public class MonitoredLock {
+  private final ReentrantLock lock;
+  private Timer waitTimer; // may be null
+
+  public MonitoredLock() {
+    this.lock = new ReentrantLock();
+    this.waitTimer = null;
+  }
+
+  public void lock() {
+    if (waitTimer == null || lock.isHeldByCurrentThread()) {
+      // don't record reentrant locking
+      lock.lock();
+      return;
+    }
+    long waitStart = System.nanoTime();
+    lock.lock();
+    waitTimer.record(System.nanoTime() - waitStart, TimeUnit.NANOSECONDS);
+  }
+
+  public void unlock() {
+    lock.unlock();
+  }
+
+  public boolean isHeldByCurrentThread() {
+    return lock.isHeldByCurrentThread();
+  }
+
+  public int getQueueLength() {
+    return lock.getQueueLength();
+  }
+
+  public void setWaitTimer(Timer waitTimer) {
+    this.waitTimer = waitTimer;
+  }
+}
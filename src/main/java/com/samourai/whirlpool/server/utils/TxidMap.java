@@ -0,0 +1,182 @@
+package com.samourai.whirlpool.server.utils;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import org.bouncycastle.util.encoders.Hex;
+
+/**
+ * Compact txid -> long map: open addressing over a flat long[], 32-byte txid + value per slot. No
+ * object per entry, so millions of txids fit in a few dozen MB. Other keys (such as addresses) are
+ * stored by their SHA-256.
+ */
+public class TxidMap {
+  private static final int SLOT_LONGS = 5; // 4 for txid, 1 for value
+  private static final int INITIAL_CAPACITY = 1024;
+  private static final float MAX_LOAD = 0.6f;
+
+  private long[] slots;
+  private int capacity; // power of 2
+  private int size;
+
+  public TxidMap() {
+    clear();
+  }
+
+  public synchronized void put(String txid, long value) {
+    if (size + 1 > capacity * MAX_LOAD) {
+      resize(capacity * 2);
+    }
+    long[] key = toKey(txid);
+    int slot = findSlot(slots, capacity, key);
+    int offset = slot * SLOT_LONGS;
+    if (isEmpty(slots, offset)) {
+      System.arraycopy(key, 0, slots, offset, 4);
+      size++;
+    }
+    slots[offset + 4] = value;
+  }
+
+  public synchronized boolean remove(String txid) {
+    int slot = findSlot(slots, capacity, toKey(txid));
+    if (isEmpty(slots, slot * SLOT_LONGS)) {
+      return false;
+    }
+    // backward-shift following entries so that probing chains stay unbroken
+    int mask = capacity - 1;
+    int next = slot;
+    while (true) {
+      next = (next + 1) & mask;
+      int nextOffset = next * SLOT_LONGS;
+      if (isEmpty(slots, nextOffset)) {
+        break;
+      }
+      int ideal = computeSlot(slots[nextOffset], mask);
+      boolean movable =
+          slot <= next ? (ideal <= slot || ideal > next) : (ideal <= slot && ideal > next);
+      if (movable) {
+        System.arraycopy(slots, nextOffset, slots, slot * SLOT_LONGS, SLOT_LONGS);
+        slot = next;
+      }
+    }
+    Arrays.fill(slots, slot * SLOT_LONGS, (slot + 1) * SLOT_LONGS, 0);
+    size--;
+    return true;
+  }
+
+  public synchronized boolean contains(String txid) {
+    int offset = findSlot(slots, capacity, toKey(txid)) * SLOT_LONGS;
+    return !isEmpty(slots, offset);
+  }
+
+  public synchronized boolean contains(String txid, long value) {
+    int offset = findSlot(slots, capacity, toKey(txid)) * SLOT_LONGS;
+    return !isEmpty(slots, offset) && slots[offset + 4] == value;
+  }
+
+  public synchronized void clear() {
+    this.capacity = INITIAL_CAPACITY;
+    this.slots = new long[capacity * SLOT_LONGS];
+    this.size = 0;
+  }
+
+  /** Atomically replace content with a freshly loaded map. */
+  public void replaceWith(TxidMap other) {
+    synchronized (other) {
+      synchronized (this) {
+        this.slots = other.slots;
+        this.capacity = other.capacity;
+        this.size = other.size;
+      }
+    }
+    other.clear(); // don't share slots
+  }
+
+  private void resize(int newCapacity) {
+    long[] newSlots = new long[newCapacity * SLOT_LONGS];
+    long[] key = new long[4];
+    for (int offset = 0; offset < slots.length; offset += SLOT_LONGS) {
+      if (!isEmpty(slots, offset)) {
+        System.arraycopy(slots, offset, key, 0, 4);
+        int newOffset = findSlot(newSlots, newCapacity, key) * SLOT_LONGS;
+        System.arraycopy(slots, offset, newSlots, newOffset, SLOT_LONGS);
+      }
+    }
+    this.slots = newSlots;
+    this.capacity = newCapacity;
+  }
+
+  // slot holding key, or first empty slot (linear probing)
+  private static int findSlot(long[] slots, int capacity, long[] key) {
+    int mask = capacity - 1;
+    int slot = computeSlot(key[0], mask);
+    while (true) {
+      int offset = slot * SLOT_LONGS;
+      if (isEmpty(slots, offset)
+          || (slots[offset] == key[0]
+              && slots[offset + 1] == key[1]
+              && slots[offset + 2] == key[2]
+              && slots[offset + 3] == key[3])) {
+        return slot;
+      }
+      slot = (slot + 1) & mask;
+    }
+  }
+
+  private static int computeSlot(long key0, int mask) {
+    return (int) (key0 ^ (key0 >>> 32)) & mask;
+  }
+
+  // an all-zero txid doesn't exist
+  private static boolean isEmpty(long[] slots, int offset) {
+    return slots[offset] == 0
+        && slots[offset + 1] == 0
+        && slots[offset + 2] == 0
+        && slots[offset + 3] == 0;
+  }
+
+  private static long[] toKey(String txid) {
+    byte[] bytes;
+    if (isHex64(txid)) {
+      bytes = Hex.decode(txid);
+    } else {
+      // not a txid: hash it to 32 bytes
+      try {
+        bytes = MessageDigest.getInstance("SHA-256").digest(txid.getBytes(StandardCharsets.UTF_8));
+      } catch (Exception e) {
+        throw new RuntimeException(e);
+      }
+    }
+    ByteBuffer buffer = ByteBuffer.wrap(bytes);
+    long[] key = new long[4];
+    for (int i = 0; i < 4; i++) {
+      key[i] = buffer.getLong();
+    }
+    if (key[0] == 0 && key[1] == 0 && key[2] == 0 && key[3] == 0) {
+      key[3] = 1; // keep empty marker free
+    }
+    return key;
+  }
+
+  private static boolean isHex64(String s) {
+    if (s.length() != 64) {
+      return false;
+    }
+    for (int i = 0; i < 64; i++) {
+      char c = s.charAt(i);
+      if (!((c >= '0' && c <= '9') || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F'))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  public synchronized int getSize() {
+    return size;
+  }
+
+  public synchronized long getMemoryBytes() {
+    return slots.length * 8L;
+  }
+}
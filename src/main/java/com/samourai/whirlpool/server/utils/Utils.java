@@ -14,11 +14,15 @@ import com.samourai.whirlpool.server.beans.rpc.TxOutPoint;
 import com.samourai.whirlpool.server.config.WhirlpoolServerConfig;
 import com.samourai.whirlpool.server.services.rpc.JSONRpcClientServiceImpl;
 import com.samourai.whirlpool.server.services.rpc.RpcClientService;
+import java.io.ByteArrayOutputStream;
 import java.lang.invoke.MethodHandles;
 import java.math.BigDecimal;
 import java.security.SecureRandom;
 import java.util.*;
 import java.util.stream.Collectors;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
 import org.apache.commons.text.CharacterPredicates;
 import org.apache.commons.text.RandomStringGenerator;
 import org.bitcoinj.core.*;
@@ -74,6 +78,10 @@ public class Utils {
     return (Map.Entry<K, V>) entries[secureRandom.nextInt(entries.length)];
   }
 
+  public static int getRandomInt(int bound) {
+    return secureRandom.nextInt(bound);
+  }
+
   public static <T> T getRandomEntry(List<T> list) {
     if (list.isEmpty()) {
       return null;
@@ -98,6 +106,41 @@ public class Utils {
     return new BigDecimal(satoshis).divide(new BigDecimal(BTC_TO_SATOSHIS));
   }
 
+  public static byte[] compress(byte[] data) {
+    Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+    try {
+      deflater.setInput(data);
+      deflater.finish();
+      ByteArrayOutputStream out = new ByteArrayOutputStream(data.length);
+      byte[] buffer = new byte[4096];
+      while (!deflater.finished()) {
+        out.write(buffer, 0, deflater.deflate(buffer));
+      }
+      return out.toByteArray();
+    } finally {
+      deflater.end();
+    }
+  }
+
+  public static byte[] decompress(byte[] data) throws DataFormatException {
+    Inflater inflater = new Inflater();
+    try {
+      inflater.setInput(data);
+      ByteArrayOutputStream out = new ByteArrayOutputStream(data.length * 2);
+      byte[] buffer = new byte[4096];
+      while (!inflater.finished()) {
+        int length = inflater.inflate(buffer);
+        if (length == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+          throw new DataFormatException("truncated data");
+        }
+        out.write(buffer, 0, length);
+      }
+      return out.toByteArray();
+    } finally {
+      inflater.end();
+    }
+  }
+
   public static void testJsonRpcClientConnectivity(RpcClientService rpcClientService)
       throws Exception {
     // connect to rpc node
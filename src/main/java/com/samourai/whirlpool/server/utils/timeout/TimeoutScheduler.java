@@ -0,0 +1,49 @@
+package com.samourai.whirlpool.server.utils.timeout;
+
+import io.micrometer.core.instrument.Timer;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/** Shared scheduler running the timeouts of every TimeoutWatcher. */
+public class TimeoutScheduler {
+  private ScheduledThreadPoolExecutor executor;
+  private Timer lagTimer; // may be null
+
+  public TimeoutScheduler(int nbThreads, String threadPrefix) {
+    AtomicInteger threadId = new AtomicInteger();
+    this.executor =
+        new ScheduledThreadPoolExecutor(
+            nbThreads,
+            runnable -> {
+              Thread thread = new Thread(runnable, threadPrefix + threadId.incrementAndGet());
+              thread.setDaemon(true);
+              return thread;
+            });
+    this.executor.setRemoveOnCancelPolicy(true); // don't retain cancelled timeouts
+    this.lagTimer = null;
+  }
+
+  protected ScheduledFuture<?> schedule(Runnable runnable, long delayMs) {
+    return executor.schedule(runnable, delayMs, TimeUnit.MILLISECONDS);
+  }
+
+  protected void onLag(long lagMs) {
+    if (lagTimer != null) {
+      lagTimer.record(Math.max(0, lagMs), TimeUnit.MILLISECONDS);
+    }
+  }
+
+  public int getNbScheduled() {
+    return executor.getQueue().size();
+  }
+
+  public void setLagTimer(Timer lagTimer) {
+    this.lagTimer = lagTimer;
+  }
+
+  public void stop() {
+    executor.shutdownNow();
+  }
+}
@@ -1,78 +1,98 @@
 package com.samourai.whirlpool.server.utils.timeout;
 
 import java.lang.invoke.MethodHandles;
+import java.util.concurrent.ScheduledFuture;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-public class TimeoutWatcher implements Runnable {
+public class TimeoutWatcher {
   private static final Logger log = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+  private static final long MAX_CATCH_UP = 1000; // don't replay timeouts missed longer ago
+
   private ITimeoutWatcherListener listener;
+  private TimeoutScheduler scheduler;
+  private String name;
 
-  private long waitSince;
+  private volatile long waitSince;
   private boolean running;
-  private Thread thread;
+  private ScheduledFuture<?> scheduled; // null when no timer
+  private long generation; // incremented on each reset
 
-  public TimeoutWatcher(ITimeoutWatcherListener listener, String threadName) {
+  public TimeoutWatcher(ITimeoutWatcherListener listener, TimeoutScheduler scheduler, String name) {
     this.listener = listener;
+    this.scheduler = scheduler;
+    this.name = name;
 
     this.waitSince = System.currentTimeMillis();
     this.running = true;
-
-    // run
-    this.thread = new Thread(this, threadName);
-    this.thread.start();
+    this.scheduled = null;
+    this.generation = 0;
+    reschedule();
   }
 
-  @Override
-  public synchronized void run() {
-    while (running) {
+  private synchronized void reschedule() {
+    if (scheduled != null) {
+      scheduled.cancel(false);
+      scheduled = null;
+    }
+    if (!running) {
+      return;
+    }
+    Long timeToWait = computeTimeToWait();
+    if (timeToWait == null) {
+      return; // no timer until next reset
+    }
+    long deadline = System.currentTimeMillis() + timeToWait;
+    long scheduledGeneration = generation;
+    scheduled = scheduler.schedule(() -> onScheduled(deadline, scheduledGeneration), timeToWait);
+  }
 
-      // did we wait enough?
+  private void onScheduled(long deadline, long scheduledGeneration) {
+    synchronized (this) {
+      if (!running || scheduledGeneration != generation) {
+        return; // stopped or reset in the meantime
+      }
       Long timeToWait = computeTimeToWait();
-      if (timeToWait == null) {
-        // no timer
-        try {
-          wait();
-        } catch (InterruptedException e) {
-        } // normal
-      } else {
-        if (timeToWait <= 0) {
-          // timer expired => notify
-          listener.onTimeout(this);
-          // reset timer
-          waitSince = System.currentTimeMillis();
-        } else {
-          try {
-            Thread.sleep(timeToWait);
-          } catch (InterruptedException e) {
-          } // normal
-        }
+      if (timeToWait == null || timeToWait > 0) {
+        // not expired yet (mix status changed) => wait again
+        reschedule();
+        return;
+      }
+      scheduler.onLag(System.currentTimeMillis() - deadline);
+    }
+
+    // notify without holding watcher monitor
+    try {
+      listener.onTimeout(this);
+    } catch (Exception e) {
+      log.error("onTimeout failed: " + name, e);
+    }
+
+    synchronized (this) {
+      if (scheduledGeneration == generation) {
+        // next period counts from deadline, not from when we woke up
+        waitSince = Math.max(deadline, System.currentTimeMillis() - MAX_CATCH_UP);
+        generation++;
+        reschedule();
       }
     }
   }
 
-  public void stop() {
+  public synchronized void stop() {
     if (log.isDebugEnabled()) {
-      log.debug("Stopping timeoutWatcher: " + thread.getName());
+      log.debug("Stopping timeoutWatcher: " + name);
     }
     running = false;
-    resumeThread();
+    reschedule();
   }
 
-  public void resetTimeout() {
+  public synchronized void resetTimeout() {
     this.waitSince = System.currentTimeMillis();
-    resumeThread();
-  }
-
-  public void resumeThread() {
-    try {
-      this.thread.interrupt(); // resume thread from sleep
-    } catch (Exception e) {
-      log.error("", e);
-    }
+    generation++;
+    reschedule();
   }
 
-  public void __simulateElapsedTime(long elapsedTimeSeconds) {
+  public synchronized void __simulateElapsedTime(long elapsedTimeSeconds) {
     this.waitSince = (System.currentTimeMillis() - (elapsedTimeSeconds * 1000));
     if (log.isDebugEnabled()) {
       Long timeToWait = computeTimeToWait();
@@ -83,7 +103,8 @@ public class TimeoutWatcher implements Runnable {
               + (timeToWait != null ? timeToWait : "null")
               + "ms to wait)");
     }
-    resumeThread();
+    generation++;
+    reschedule();
   }
 
   public long computeElapsedTime() {
@@ -0,0 +1,3 @@
+-- compressed raw tx, legacy hex raw_tx is converted in background by DbService
+ALTER TABLE mix_log ADD COLUMN raw_tx_compressed MEDIUMBLOB NULL;
+ALTER TABLE mix_log MODIFY COLUMN raw_tx MEDIUMTEXT NULL;
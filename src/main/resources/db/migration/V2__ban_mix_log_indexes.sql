@@ -0,0 +1,4 @@
+-- keyset pagination of active bans (history & ban pages)
+CREATE INDEX ban_expiration_id ON ban (expiration, id);
+-- mix_log lookup by mix
+CREATE INDEX mix_log_mix_id ON mix_log (mix_id);
@@ -0,0 +1,99 @@
+package com.samourai.whirlpool.server.beans;
+
+import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.RANDOM_PORT;
+
+import com.samourai.whirlpool.server.beans.rpc.TxOutPoint;
+import com.samourai.whirlpool.server.integration.AbstractIntegrationTest;
+import com.samourai.whirlpool.server.utils.Utils;
+import java.lang.invoke.MethodHandles;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+
+@SpringBootTest(webEnvironment = RANDOM_PORT)
+public class InputPoolTest extends AbstractIntegrationTest {
+  private static final Logger log = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+  @Test
+  public void removeRandom() throws Exception {
+    InputPool inputPool = new InputPool();
+    int nbInputs = 100;
+    for (int i = 0; i < nbInputs; i++) {
+      inputPool.register(
+          new RegisteredInput(
+              "poolId", "user" + i, false, generateOutPoint(1000), "127.0.0.1", null));
+    }
+    Assertions.assertEquals(nbInputs, inputPool.getSize());
+
+    // remove by username
+    RegisteredInput user5 = inputPool.removeByUsername("user5").get();
+    Assertions.assertFalse(inputPool.findByUsername("user5").isPresent());
+    Assertions.assertFalse(inputPool.hasInput(user5.getOutPoint()));
+    Assertions.assertFalse(inputPool.removeByUsername("user5").isPresent());
+
+    // no eligible input
+    Assertions.assertFalse(inputPool.removeRandom(input -> false).isPresent());
+
+    // single eligible input
+    Optional<RegisteredInput> user42 =
+        inputPool.removeRandom(input -> input.getUsername().equals("user42"));
+    Assertions.assertEquals("user42", user42.get().getUsername());
+
+    // drain: every input is removed once and indexes stay consistent
+    Set<String> usernames = new HashSet<>();
+    Optional<RegisteredInput> input;
+    while ((input = inputPool.removeRandom(i -> true)).isPresent()) {
+      Assertions.assertTrue(usernames.add(input.get().getUsername()));
+      Assertions.assertFalse(inputPool.findByUsername(input.get().getUsername()).isPresent());
+      Assertions.assertFalse(inputPool.hasInput(input.get().getOutPoint()));
+    }
+    Assertions.assertEquals(nbInputs - 2, usernames.size());
+    Assertions.assertFalse(inputPool.hasInputs());
+    Assertions.assertEquals(0, inputPool.getSizeByTor(false));
+  }
+
+  @Test
+  public void removeRandom_minValue() throws Exception {
+    doRemoveRandom_minValue(new InputPool(true));
+    doRemoveRandom_minValue(new InputPool(false)); // not indexed => same behavior
+  }
+
+  private void doRemoveRandom_minValue(InputPool inputPool) throws Exception {
+    for (int i = 0; i < 100; i++) {
+      inputPool.register(
+          new RegisteredInput(
+              "poolId", "user" + i, false, generateOutPoint(1000 + i), "127.0.0.1", null));
+    }
+
+    // only inputs with enough value
+    for (int i = 0; i < 10; i++) {
+      RegisteredInput input = inputPool.removeRandom(in -> true, 1090).get();
+      Assertions.assertTrue(input.getOutPoint().getValue() >= 1090);
+      Assertions.assertFalse(inputPool.hasInput(input.getOutPoint()));
+    }
+    Assertions.assertFalse(inputPool.removeRandom(in -> true, 1090).isPresent());
+    Assertions.assertEquals(90, inputPool.getSize());
+
+    // filter still applies
+    RegisteredInput input =
+        inputPool.removeRandom(in -> in.getUsername().equals("user50"), 1000).get();
+    Assertions.assertEquals("user50", input.getUsername());
+    Assertions.assertFalse(inputPool.findByUsername("user50").isPresent());
+    Assertions.assertEquals(89, inputPool.getSize());
+  }
+
+  private TxOutPoint generateOutPoint(long value) {
+    return new TxOutPoint(
+        Utils.getRandomString(65),
+        0,
+        value,
+        99,
+        null,
+        testUtils.generateSegwitAddress().getBech32AsString());
+  }
+}
@@ -0,0 +1,69 @@
+package com.samourai.whirlpool.server.beans;
+
+import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.RANDOM_PORT;
+
+import com.samourai.whirlpool.server.integration.AbstractIntegrationTest;
+import java.lang.invoke.MethodHandles;
+import java.util.ArrayList;
+import java.util.List;
+import org.bitcoinj.core.*;
+import org.bitcoinj.crypto.TransactionSignature;
+import org.bitcoinj.script.Script;
+import org.bitcoinj.script.ScriptBuilder;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+
+@SpringBootTest(webEnvironment = RANDOM_PORT)
+public class MixSigningContextTest extends AbstractIntegrationTest {
+  private static final Logger log = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+  private static final long VALUE = 1000400;
+
+  @Test
+  public void verifyP2WPKH() throws Exception {
+    for (int nbInputs : new int[] {5, 20, 70}) {
+      verifyP2WPKH(nbInputs);
+    }
+  }
+
+  private void verifyP2WPKH(int nbInputs) throws Exception {
+    Transaction tx = new Transaction(params);
+    List<ECKey> keys = new ArrayList<>();
+    for (int i = 0; i < nbInputs; i++) {
+      ECKey key = new ECKey();
+      keys.add(key);
+      TransactionOutPoint outPoint =
+          new TransactionOutPoint(params, i, Sha256Hash.of(key.getPubKey()));
+      tx.addInput(new TransactionInput(params, tx, new byte[] {}, outPoint, Coin.valueOf(VALUE)));
+      tx.addOutput(Coin.valueOf(1000000), ScriptBuilder.createP2WPKHOutputScript(new ECKey()));
+    }
+    MixSigningContext signingContext = new MixSigningContext(tx);
+
+    for (int i = 0; i < nbInputs; i++) {
+      ECKey key = keys.get(i);
+      Script scriptCode = ScriptBuilder.createP2PKHOutputScript(key);
+      TransactionSignature signature =
+          tx.calculateWitnessSignature(
+              i, key, scriptCode, Coin.valueOf(VALUE), Transaction.SigHash.ALL, false);
+      TransactionWitness witness = TransactionWitness.redeemP2WPKH(signature, key);
+      byte[] scriptPubKey = ScriptBuilder.createP2WPKHOutputScript(key).getProgram();
+
+      TransactionOutPoint outPoint = tx.getInput(i).getOutpoint();
+      Assertions.assertEquals(
+          i,
+          signingContext
+              .findInputIndex(outPoint.getHash().toString(), outPoint.getIndex())
+              .intValue());
+      Assertions.assertTrue(MixSigningContext.isP2WPKH(scriptPubKey, witness));
+      Assertions.assertTrue(signingContext.verifyP2WPKH(i, witness, VALUE, scriptPubKey));
+
+      // wrong value or wrong input => invalid
+      Assertions.assertFalse(signingContext.verifyP2WPKH(i, witness, VALUE + 1, scriptPubKey));
+      if (i > 0) {
+        Assertions.assertFalse(signingContext.verifyP2WPKH(i - 1, witness, VALUE, scriptPubKey));
+      }
+    }
+  }
+}
@@ -103,6 +103,10 @@ public abstract class AbstractIntegrationTest {
 
   @Autowired protected BlameService blameService;
 
+  @Autowired protected BanService banService;
+
+  @Autowired protected MixRollupService mixRollupService;
+
   @Autowired protected FeePayloadService feePayloadService;
   @Autowired protected PushService pushService;
   @Autowired protected XorMask xorMask;
@@ -133,6 +137,11 @@ public abstract class AbstractIntegrationTest {
     dbService.__reset();
     mixLimitsService = mixService.__getMixLimitsService();
     rpcClientService.resetMock();
+    blockchainDataService.__reset();
+    inputValidationService.__reset();
+    banService.loadActiveBans();
+    blameService.loadRecentBlames();
+    mixRollupService.loadMixRollups();
 
     configurePools(serverConfig.getMinerFees(), serverConfig.getPools());
     cacheService._reset();
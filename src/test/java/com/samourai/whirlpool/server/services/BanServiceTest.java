@@ -3,6 +3,7 @@ package com.samourai.whirlpool.server.services;
 import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.RANDOM_PORT;
 
 import com.samourai.whirlpool.server.beans.BlameReason;
+import com.samourai.whirlpool.server.beans.KeysetPage;
 import com.samourai.whirlpool.server.beans.Mix;
 import com.samourai.whirlpool.server.beans.RegisteredInput;
 import com.samourai.whirlpool.server.integration.AbstractIntegrationTest;
@@ -25,7 +26,6 @@ public class BanServiceTest extends AbstractIntegrationTest {
 
   @Autowired private BlameRepository blameRepository;
   @Autowired private BlameService blameService;
-  @Autowired private BanService banService;
   @Autowired private BanRepository banRepository;
 
   private static final int EXPIRATION_MS = 1000 * 1000;
@@ -85,6 +85,31 @@ public class BanServiceTest extends AbstractIntegrationTest {
         banService.findActiveBan(UTXO_HASH, UTXO_INDEX, afterExpiration).isPresent());
   }
 
+  @Test
+  public void blame_and_ban_afterRestart() throws Exception {
+    Mix mix = __getCurrentMix();
+
+    final String UTXO_HASH = "cb2fad88ae75fdabb2bcc131b2f4f0ff2c82af22b6dd804dc341900195fb6187";
+    final long UTXO_INDEX = 2;
+    RegisteredInput registeredInput =
+        testUtils
+            .computeConfirmedInput(mix.getPool().getPoolId(), UTXO_HASH, UTXO_INDEX, false)
+            .getRegisteredInput();
+    String identifier = Utils.computeBlameIdentitifer(registeredInput);
+
+    // blame 1/2 => persisted
+    blameService.blame(registeredInput, BlameReason.DISCONNECT, mix);
+    Assertions.assertEquals(1, dbService.findBlames(identifier).size());
+
+    // restart => blames window reloaded from db
+    blameService.loadRecentBlames();
+
+    // blame 2/2 => banned
+    blameService.blame(registeredInput, BlameReason.DISCONNECT, mix);
+    Assertions.assertTrue(banService.findActiveBan(UTXO_HASH, UTXO_INDEX).isPresent());
+    Assertions.assertEquals(2, dbService.findBlames(identifier).size());
+  }
+
   @Test
   public void blame_and_ban_liquidity() throws Exception {
     // server.ban.blames = 2
@@ -171,6 +196,59 @@ public class BanServiceTest extends AbstractIntegrationTest {
         banTO3.getDuration()); // duration doubled
   }
 
+  @Test
+  public void purgeExpiredBans() throws Exception {
+    long dayMs = (86400 * 1000);
+    Timestamp twoDaysAgo = new Timestamp(System.currentTimeMillis() - 2 * dayMs);
+    Timestamp now = new Timestamp(System.currentTimeMillis());
+
+    // expired ban
+    banService.banTemporary(twoDaysAgo, "expired", null, "test", 1000);
+    Assertions.assertFalse(banService.findActiveBan("expired", now).isPresent());
+
+    // expired ban superseded by active ban
+    banService.banTemporary(twoDaysAgo, "superseded", null, "test", 1000);
+    banService.banTemporary(now, "superseded", null, "test", dayMs);
+    Assertions.assertTrue(banService.findActiveBan("superseded", now).isPresent());
+    Assertions.assertEquals(2, banService.getNbActiveBans());
+
+    // purge
+    banService.purgeExpiredBans();
+    Assertions.assertEquals(1, banService.getNbActiveBans());
+    Assertions.assertTrue(banService.findActiveBan("superseded", now).isPresent());
+
+    // reload from db
+    banService.loadActiveBans();
+    Assertions.assertEquals(1, banService.getNbActiveBans());
+    Assertions.assertTrue(banService.findActiveBan("superseded", now).isPresent());
+  }
+
+  @Test
+  public void findActiveBans_keyset() throws Exception {
+    long dayMs = (86400 * 1000);
+    Timestamp twoDaysAgo = new Timestamp(System.currentTimeMillis() - 2 * dayMs);
+    Timestamp now = new Timestamp(System.currentTimeMillis());
+    banService.banTemporary(twoDaysAgo, "expired", null, "test", 1000);
+    BanTO ban1 = banService.banTemporary(now, "ban1", null, "test", dayMs);
+    BanTO ban2 = banService.banTemporary(now, "ban2", null, "test", dayMs);
+    BanTO ban3 = banService.banTemporary(now, "ban3", null, "test", dayMs);
+
+    // newest first
+    KeysetPage<BanTO> page = banService.findActiveBans(null, 2);
+    Assertions.assertTrue(page.isFirst());
+    Assertions.assertEquals(2, page.getContent().size());
+    Assertions.assertEquals(ban3.getId(), page.getContent().get(0).getId());
+    Assertions.assertEquals(ban2.getId(), page.getContent().get(1).getId());
+    Assertions.assertTrue(page.hasNext());
+
+    // seek below last id, expired ban skipped
+    page = banService.findActiveBans(page.getNextBeforeId(), 2);
+    Assertions.assertFalse(page.isFirst());
+    Assertions.assertEquals(1, page.getContent().size());
+    Assertions.assertEquals(ban1.getId(), page.getContent().get(0).getId());
+    Assertions.assertFalse(page.hasNext());
+  }
+
   // PERMANENT BAN
 
   /*@Test
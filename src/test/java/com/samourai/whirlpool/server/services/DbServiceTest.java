@@ -0,0 +1,84 @@
+package com.samourai.whirlpool.server.services;
+
+import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.RANDOM_PORT;
+
+import com.samourai.whirlpool.server.beans.BlameReason;
+import com.samourai.whirlpool.server.integration.AbstractIntegrationTest;
+import com.samourai.whirlpool.server.persistence.repositories.MixLogRepository;
+import com.samourai.whirlpool.server.persistence.repositories.Tx0WhitelistRepository;
+import com.samourai.whirlpool.server.persistence.to.MixLogTO;
+import com.samourai.whirlpool.server.persistence.to.Tx0WhitelistTO;
+import java.lang.invoke.MethodHandles;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+@SpringBootTest(webEnvironment = RANDOM_PORT)
+public class DbServiceTest extends AbstractIntegrationTest {
+  private static final Logger log = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+  @Autowired private MixLogRepository mixLogRepository;
+  @Autowired private Tx0WhitelistRepository tx0WhitelistRepository;
+
+  @Test
+  public void convertMixLogRawTx() throws Exception {
+    String rawTx = "0100000001b9c0e6f5e0f1b3d0c2d1a1b1c1d1e1f101112131415161718191a1b1c1d1e1f0ffffffff";
+
+    // legacy hex rows
+    MixLogTO legacy1 = new MixLogTO();
+    legacy1.__setRawTx(rawTx);
+    legacy1 = mixLogRepository.save(legacy1);
+    MixLogTO legacy2 = new MixLogTO();
+    legacy2.__setRawTx(rawTx + "00");
+    legacy2 = mixLogRepository.save(legacy2);
+
+    // convert
+    dbService.convertMixLogRawTx();
+    MixLogTO converted1 = mixLogRepository.findById(legacy1.getId()).get();
+    MixLogTO converted2 = mixLogRepository.findById(legacy2.getId()).get();
+    Assertions.assertNotNull(converted1.getRawTxCompressed());
+    Assertions.assertNotNull(converted2.getRawTxCompressed());
+    Assertions.assertEquals(rawTx, converted1.getRawTx());
+    Assertions.assertEquals(rawTx + "00", converted2.getRawTx());
+
+    // nothing left
+    dbService.convertMixLogRawTx();
+    Assertions.assertEquals(rawTx, mixLogRepository.findById(legacy1.getId()).get().getRawTx());
+  }
+
+  @Test
+  public void loadTx0Whitelist() throws Exception {
+    String txid1 = "cb2fad88ae7d3b2c8b1e8c9b0b4b8a1f2e3d4c5b6a79888776655443322110fa";
+    String txid2 = "7ea75da574ebabf8d17979615b059ab53aae3011926426204e730d164a0d0f16";
+    Assertions.assertFalse(dbService.hasTx0Whitelist(txid1));
+
+    // managed externally
+    tx0WhitelistRepository.save(new Tx0WhitelistTO(txid1));
+    tx0WhitelistRepository.save(new Tx0WhitelistTO(txid2));
+
+    // reload
+    dbService.loadTx0Whitelist();
+    Assertions.assertTrue(dbService.hasTx0Whitelist(txid1));
+    Assertions.assertTrue(dbService.hasTx0Whitelist(txid2));
+  }
+
+  @Test
+  public void flushBlames_retry() throws Exception {
+    // invalid blame => batch fails
+    dbService.saveBlame("poison", null, "mixId", "127.0.0.1");
+    for (int i = 1; i < DbService.BLAME_FLUSH_ATTEMPTS; i++) {
+      dbService.flushBlames(); // failed batch kept for retry
+    }
+
+    // last attempt fails again => batch dropped
+    dbService.saveBlame("identifier", BlameReason.DISCONNECT, "mixId", "127.0.0.1");
+    Assertions.assertEquals(0, dbService.findBlames("identifier").size());
+
+    // next blames are persisted
+    dbService.saveBlame("identifier", BlameReason.DISCONNECT, "mixId", "127.0.0.1");
+    Assertions.assertEquals(1, dbService.findBlames("identifier").size());
+  }
+}
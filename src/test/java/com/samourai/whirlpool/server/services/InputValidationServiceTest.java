@@ -160,6 +160,26 @@ public class InputValidationServiceTest extends AbstractIntegrationTest {
     doCheckInput("b3557587f87bcbd37e847a0fff0ded013b23026f153d85f28cb5d407d39ef2f3", 2, POOL_FEE);
   }
 
+  @Test
+  public void checkInput_cached() throws Exception {
+    String txid = "b3557587f87bcbd37e847a0fff0ded013b23026f153d85f28cb5d407d39ef2f3";
+
+    // rejected: unknown feePayload
+    IllegalInputException e1 =
+        Assertions.assertThrows(IllegalInputException.class, () -> doCheckInput(txid, 2, POOL_FEE));
+
+    // other output of same tx0 => rejected from cache, with a distinct exception
+    IllegalInputException e2 =
+        Assertions.assertThrows(IllegalInputException.class, () -> doCheckInput(txid, 3, POOL_FEE));
+    Assertions.assertNotSame(e1, e2);
+    Assertions.assertEquals(e1.getErrorCode(), e2.getErrorCode());
+    Assertions.assertEquals(e1.getMessage(), e2.getMessage());
+
+    // configure scode => cached rejection invalidated without reset => valid
+    setScodeConfig("myscode", (short) 12345, 0, null);
+    Assertions.assertFalse(doCheckInput(txid, 3, POOL_FEE)); // mustMix
+  }
+
   @Test
   public void checkInput_cascading_valid() throws Exception {
     /*
@@ -0,0 +1,98 @@
+package com.samourai.whirlpool.server.services;
+
+import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.RANDOM_PORT;
+
+import com.samourai.whirlpool.protocol.websocket.notifications.MixStatus;
+import com.samourai.whirlpool.server.beans.FailReason;
+import com.samourai.whirlpool.server.beans.Mix;
+import com.samourai.whirlpool.server.beans.MixRollup;
+import com.samourai.whirlpool.server.beans.MixRollupPeriod;
+import com.samourai.whirlpool.server.integration.AbstractIntegrationTest;
+import java.lang.invoke.MethodHandles;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+
+@SpringBootTest(webEnvironment = RANDOM_PORT)
+public class MixRollupServiceTest extends AbstractIntegrationTest {
+  private static final Logger log = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+  @Test
+  public void onMixResult() throws Exception {
+    Mix mix = __getCurrentMix();
+    String poolId = mix.getPool().getPoolId();
+
+    // no mix yet
+    Assertions.assertEquals(0, mixRollupService.getNbMixRollups(poolId, MixRollupPeriod.HOUR));
+
+    // failed mix
+    mix.setFailReason(FailReason.FAIL_SIGNING);
+    mix.setMixStatusAndTime(MixStatus.FAIL);
+
+    // not persisted => ignored
+    mixRollupService.onMixResult(mix);
+    assertNbFail(poolId, FailReason.FAIL_SIGNING, 0);
+
+    dbService.saveMix(mix);
+    mixRollupService.onMixResult(mix);
+    assertNbFail(poolId, FailReason.FAIL_SIGNING, 1);
+    assertNbFail(null, FailReason.FAIL_SIGNING, 1);
+    assertNbFail("unknownPool", FailReason.FAIL_SIGNING, 0);
+    List<Long> starts = computeStarts(poolId);
+
+    // rebuilt from database after restart, in same buckets
+    mixRollupService.loadMixRollups();
+    assertNbFail(poolId, FailReason.FAIL_SIGNING, 1);
+    assertNbFail(null, FailReason.FAIL_SIGNING, 1);
+    Assertions.assertEquals(starts, computeStarts(poolId));
+  }
+
+  @Test
+  public void computeMixDurationPercentile() throws Exception {
+    MixRollup mixRollup = new MixRollup("pool", MixRollupPeriod.HOUR, 0);
+    Assertions.assertEquals(0, mixRollup.computeMixDurationPercentile(0.5));
+
+    for (int mixDuration = 1; mixDuration <= 100; mixDuration++) {
+      mixRollup.add(MixStatus.SUCCESS, null, 5, 3, 2, 1000L, mixDuration);
+    }
+    mixRollup.add(MixStatus.FAIL, FailReason.DISCONNECT, 5, 3, 2, null, 5000);
+    Assertions.assertEquals(100, mixRollup.getNbSuccess());
+    Assertions.assertEquals(1, mixRollup.getNbFail());
+    Assertions.assertEquals(500, mixRollup.getSumAnonymitySet());
+    Assertions.assertEquals(100000, mixRollup.getSumFeesAmount());
+
+    // approximated by bins of ~19%
+    int p50 = mixRollup.computeMixDurationPercentile(0.5);
+    Assertions.assertTrue(p50 >= 50 && p50 <= 60, "p50=" + p50);
+    int p99 = mixRollup.computeMixDurationPercentile(0.99);
+    Assertions.assertTrue(p99 >= 99 && p99 <= 120, "p99=" + p99);
+  }
+
+  private List<Long> computeStarts(String poolId) {
+    List<Long> starts = new ArrayList<>();
+    for (MixRollupPeriod period : MixRollupPeriod.values()) {
+      for (MixRollup mixRollup : mixRollupService.getMixRollups(poolId, period, 0, 10)) {
+        starts.add(mixRollup.getStart());
+      }
+    }
+    return starts;
+  }
+
+  private void assertNbFail(String poolId, FailReason failReason, int expected) {
+    for (MixRollupPeriod period : MixRollupPeriod.values()) {
+      // mix may be counted just before an hour boundary
+      List<MixRollup> mixRollups = mixRollupService.getMixRollups(poolId, period, 0, 10);
+      int nbFail = mixRollups.stream().mapToInt(r -> r.getNbFail()).sum();
+      int nbFailReason =
+          mixRollups.stream()
+              .mapToInt(r -> r.getNbFailByReason().getOrDefault(failReason, 0))
+              .sum();
+      Assertions.assertEquals(expected, nbFail);
+      Assertions.assertEquals(expected, nbFailReason);
+    }
+  }
+}
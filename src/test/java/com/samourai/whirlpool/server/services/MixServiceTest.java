@@ -5,12 +5,15 @@ import static org.springframework.boot.test.context.SpringBootTest.WebEnvironmen
 import com.samourai.whirlpool.protocol.websocket.notifications.MixStatus;
 import com.samourai.whirlpool.server.beans.ConfirmedInput;
 import com.samourai.whirlpool.server.beans.FailReason;
+import com.samourai.whirlpool.server.beans.InputPool;
 import com.samourai.whirlpool.server.beans.Mix;
+import com.samourai.whirlpool.server.beans.MixableReason;
 import com.samourai.whirlpool.server.beans.RegisteredInput;
 import com.samourai.whirlpool.server.beans.rpc.TxOutPoint;
 import com.samourai.whirlpool.server.integration.AbstractIntegrationTest;
 import com.samourai.whirlpool.server.utils.Utils;
 import java.lang.invoke.MethodHandles;
+import java.util.Optional;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
@@ -78,6 +81,136 @@ public class MixServiceTest extends AbstractIntegrationTest {
     Assertions.assertTrue(spyMixService.isConfirmInputReady(mix));
   }
 
+  @Test
+  public void aggregates() throws Exception {
+    Mix mix = __nextMix(200000000, 10000000, 100, 9500, 10000, 510, 1, 0, 5);
+    long mustMixValue = 200000400;
+
+    ConfirmedInput mustMix1 =
+        new ConfirmedInput(
+            new RegisteredInput(
+                mix.getPool().getPoolId(),
+                "mustMix1",
+                false,
+                generateOutPoint(mustMixValue),
+                "127.0.0.1",
+                null),
+            "userHash1");
+    ConfirmedInput liquidity1 =
+        new ConfirmedInput(
+            new RegisteredInput(
+                mix.getPool().getPoolId(),
+                "liquidity1",
+                true,
+                generateOutPoint(200000000),
+                "127.0.0.1",
+                null),
+            "userHash2");
+    mix.registerInput(mustMix1);
+    mix.registerInput(liquidity1);
+    Assertions.assertEquals(1, mix.getNbInputsMustMix());
+    Assertions.assertEquals(1, mix.getNbInputsLiquidities());
+    Assertions.assertEquals(400, mix.computeMinerFeeAccumulated());
+
+    // duplicate => unchanged
+    Assertions.assertThrows(Exception.class, () -> mix.registerInput(mustMix1));
+    Assertions.assertEquals(1, mix.getNbInputsMustMix());
+    Assertions.assertEquals(400, mix.computeMinerFeeAccumulated());
+
+    // unregister twice => decremented once
+    mix.unregisterInput(mustMix1);
+    mix.unregisterInput(mustMix1);
+    Assertions.assertEquals(0, mix.getNbInputsMustMix());
+    Assertions.assertEquals(1, mix.getNbInputsLiquidities());
+    Assertions.assertEquals(0, mix.computeMinerFeeAccumulated());
+  }
+
+  @Test
+  public void indexes() throws Exception {
+    Mix mix = __nextMix(200000000, 10000000, 100, 9500, 10000, 510, 1, 0, 5);
+    TxOutPoint outPoint = generateOutPoint(200000400);
+    ConfirmedInput mustMix1 =
+        new ConfirmedInput(
+            new RegisteredInput(
+                mix.getPool().getPoolId(), "mustMix1", false, outPoint, "127.0.0.1", null),
+            "userHash1");
+    mix.registerInput(mustMix1);
+
+    Assertions.assertSame(mustMix1, mix.getInputByUsername("mustMix1").get());
+    Assertions.assertSame(
+        mustMix1, mix.getInputByAddress(outPoint.getToAddress().toUpperCase()).get());
+    Assertions.assertEquals(1, mix.getNbInputsByUserHash("userHash1"));
+    Assertions.assertEquals(1, mix.getNbInputsByTxid(outPoint.getHash()));
+
+    // same username => both indexed
+    TxOutPoint outPoint2 = generateOutPoint(200000400);
+    ConfirmedInput mustMix2 =
+        new ConfirmedInput(
+            new RegisteredInput(
+                mix.getPool().getPoolId(), "mustMix1", false, outPoint2, "127.0.0.1", null),
+            "userHash1");
+    mix.registerInput(mustMix2);
+    Assertions.assertEquals(2, mix.getInputsByUsername("mustMix1").size());
+    Assertions.assertEquals(2, mix.getNbInputsByUserHash("userHash1"));
+
+    // disconnect removes all inputs of username
+    mix.onDisconnect("mustMix1");
+    Assertions.assertEquals(0, mix.getNbInputs());
+    Assertions.assertTrue(mix.getInputsByUsername("mustMix1").isEmpty());
+    Assertions.assertFalse(mix.getInputByUsername("mustMix1").isPresent());
+    Assertions.assertFalse(mix.getInputByAddress(outPoint.getToAddress()).isPresent());
+    Assertions.assertEquals(0, mix.getNbInputsByUserHash("userHash1"));
+    Assertions.assertEquals(0, mix.getNbInputsByTxid(outPoint.getHash()));
+  }
+
+  @Test
+  public void computeFilterInputMixable() throws Exception {
+    Mix mix = __nextMix(200000000, 10000000, 100, 9500, 10000, 510, 1, 0, 5);
+    mix.registerInput(
+        new ConfirmedInput(
+            new RegisteredInput(
+                mix.getPool().getPoolId(),
+                "mustMix1",
+                false,
+                generateOutPoint(200000400),
+                "127.0.0.1",
+                null),
+            "userHash1"));
+
+    // 100 queued inputs, only one is mixable
+    InputPool queue = new InputPool();
+    for (int i = 0; i < 100; i++) {
+      queue.register(
+          new RegisteredInput(
+              mix.getPool().getPoolId(),
+              "queued" + i,
+              false,
+              generateOutPoint(200000400),
+              "127.0.0.1",
+              "userHash1"));
+    }
+    RegisteredInput mixable =
+        new RegisteredInput(
+            mix.getPool().getPoolId(),
+            "mixable",
+            false,
+            generateOutPoint(200000400),
+            "127.0.0.1",
+            null);
+    queue.register(mixable);
+
+    Assertions.assertEquals(
+        MixableReason.SAME_USER_HASH,
+        mixService.checkMixable(mix, queue.findByUsername("queued0").get(), "userHash1"));
+    Assertions.assertEquals(MixableReason.MIXABLE, mixService.checkMixable(mix, mixable, null));
+
+    Optional<RegisteredInput> invited =
+        queue.removeRandom(mixService.computeFilterInputMixable(mix));
+    Assertions.assertSame(mixable, invited.get());
+    Assertions.assertFalse(
+        queue.removeRandom(mixService.computeFilterInputMixable(mix)).isPresent());
+  }
+
   @Test
   public void isConfirmInputReady_withLiquidityBefore() throws Exception {
     MixService spyMixService = Mockito.spy(mixService);
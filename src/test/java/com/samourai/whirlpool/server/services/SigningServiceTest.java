@@ -9,12 +9,15 @@ import com.samourai.whirlpool.client.mix.handler.UtxoWithBalance;
 import com.samourai.whirlpool.client.utils.ClientUtils;
 import com.samourai.whirlpool.protocol.websocket.notifications.MixStatus;
 import com.samourai.whirlpool.server.beans.ConfirmedInput;
+import com.samourai.whirlpool.server.beans.FailReason;
 import com.samourai.whirlpool.server.beans.Mix;
 import com.samourai.whirlpool.server.beans.RegisteredInput;
 import com.samourai.whirlpool.server.beans.rpc.TxOutPoint;
 import com.samourai.whirlpool.server.exceptions.IllegalInputException;
 import com.samourai.whirlpool.server.integration.AbstractIntegrationTest;
+import com.samourai.whirlpool.server.persistence.repositories.MixTxidRepository;
 import java.lang.invoke.MethodHandles;
+import java.util.concurrent.ExecutionException;
 import org.bitcoinj.core.ECKey;
 import org.bitcoinj.core.Transaction;
 import org.bouncycastle.crypto.params.RSABlindingParameters;
@@ -37,6 +40,8 @@ public class SigningServiceTest extends AbstractIntegrationTest {
 
   @Autowired private RegisterOutputService registerOutputService;
 
+  @Autowired private MixTxidRepository mixTxidRepository;
+
   @BeforeEach
   @Override
   public void setUp() throws Exception {
@@ -65,10 +70,48 @@ public class SigningServiceTest extends AbstractIntegrationTest {
     // test
     String username = "user1";
     String[] witness64 = doSigning(mix, premixHandler, liquidity, txOutPoint, username);
-    mixService.registerSignature(mix.getMixId(), username, witness64);
+    mixService.registerSignature(mix.getMixId(), username, witness64).get(); // wait broadcast
 
     // verify
     Assertions.assertEquals(MixStatus.SUCCESS, mix.getMixStatus());
+
+    // mix txid persisted synchronously
+    Assertions.assertTrue(
+        mixTxidRepository
+            .findByTxidAndDenomination(
+                mix.getTx().getHashAsString(), mix.getPool().getDenomination())
+            .isPresent());
+  }
+
+  @Test
+  public void signing_failOnBroadcastError() throws Exception {
+    // mix config
+    Mix mix = __nextMix(1, 0, 1, __getCurrentMix().getPool()); // 1 user
+
+    // prepare input
+    ECKey ecKey = new ECKey();
+    boolean liquidity = false;
+    long inputBalance =
+        mix.getPool().computePremixBalanceMin(liquidity) + mix.getPool().getMinerFeeMix();
+    TxOutPoint txOutPoint =
+        createAndMockTxOutPoint(new SegwitAddress(ecKey.getPubKey(), params), inputBalance, 10);
+
+    // valid signature
+    UtxoWithBalance utxoWithBalance =
+        new UtxoWithBalance(txOutPoint.getHash(), txOutPoint.getIndex(), inputBalance);
+    PremixHandler premixHandler = new PremixHandler(utxoWithBalance, ecKey, "userPreHash");
+
+    // unexpected RPC error (not a BroadcastException)
+    rpcClientService.mockBroadcastError(new RuntimeException("rpc unavailable"));
+
+    // test
+    String username = "user1";
+    String[] witness64 = doSigning(mix, premixHandler, liquidity, txOutPoint, username);
+    mixService.registerSignature(mix.getMixId(), username, witness64).get(); // wait broadcast
+
+    // verify: mix not stuck broadcasting
+    Assertions.assertEquals(MixStatus.FAIL, mix.getMixStatus());
+    Assertions.assertEquals(FailReason.FAIL_BROADCAST, mix.getFailReason());
   }
 
   @Test
@@ -142,7 +185,7 @@ public class SigningServiceTest extends AbstractIntegrationTest {
     // test
     String username = "user1";
     String[] witness64 = doSigning(mix, premixHandler, liquidity, txOutPoint, username);
-    mixService.registerSignature(mix.getMixId(), username, witness64); // valid
+    mixService.registerSignature(mix.getMixId(), username, witness64).get(); // valid
     try {
       mixService.registerSignature(mix.getMixId(), username, witness64); // duplicate signing
       Assertions.assertTrue(false);
@@ -175,17 +218,17 @@ public class SigningServiceTest extends AbstractIntegrationTest {
         new PremixHandler(utxoWithBalance, new ECKey(), "userPreHash"); // invalid key
 
     // test
-    try {
-      String username = "user1";
-      String[] witness64 = doSigning(mix, premixHandler, liquidity, txOutPoint, username);
-      mixService.registerSignature(mix.getMixId(), username, witness64);
-      Assertions.assertTrue(false);
-    } catch (IllegalInputException e) {
-      // verify
-      Assertions.assertEquals("Invalid signature", e.getMessage());
-      return;
-    }
-    Assertions.assertTrue(false); // IllegalInputException expected
+    String username = "user1";
+    String[] witness64 = doSigning(mix, premixHandler, liquidity, txOutPoint, username);
+    ExecutionException e =
+        Assertions.assertThrows(
+            ExecutionException.class,
+            () -> mixService.registerSignature(mix.getMixId(), username, witness64).get());
+
+    // verify
+    Assertions.assertTrue(e.getCause() instanceof IllegalInputException);
+    Assertions.assertEquals("Invalid signature", e.getCause().getMessage());
+    Assertions.assertEquals(MixStatus.SIGNING, mix.getMixStatus());
   }
 
   private String[] doSigning(
@@ -0,0 +1,55 @@
+package com.samourai.whirlpool.server.services;
+
+import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.RANDOM_PORT;
+
+import com.samourai.whirlpool.server.integration.AbstractIntegrationTest;
+import java.lang.invoke.MethodHandles;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+@SpringBootTest(webEnvironment = RANDOM_PORT)
+public class TaskServiceTest extends AbstractIntegrationTest {
+  private static final Logger log = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+  @Autowired private TaskService taskService;
+
+  @Test
+  public void runDelayed() throws Exception {
+    CompletableFuture<String> threadName = new CompletableFuture<>();
+    taskService.runDelayed(10, () -> threadName.complete(Thread.currentThread().getName()));
+
+    // dedicated scheduler, not shared with @Scheduled jobs
+    Assertions.assertTrue(
+        threadName.get(2, TimeUnit.SECONDS).startsWith(TaskService.THREAD_NAME_PREFIX));
+  }
+
+  @Test
+  public void runDebounced() throws Exception {
+    AtomicInteger nbRuns = new AtomicInteger(0);
+    Runnable runnable = () -> nbRuns.incrementAndGet();
+
+    taskService.runDebounced("test", 500, runnable);
+    Thread.sleep(300);
+
+    // postponed by second call
+    taskService.runDebounced("test", 500, runnable);
+    Thread.sleep(400);
+    Assertions.assertEquals(0, nbRuns.get());
+
+    // ran once, 500ms after last call
+    Thread.sleep(400);
+    Assertions.assertEquals(1, nbRuns.get());
+
+    // next call => new run
+    taskService.runDebounced("test", 0, runnable);
+    Thread.sleep(300);
+    Assertions.assertEquals(2, nbRuns.get());
+  }
+}
@@ -0,0 +1,84 @@
+package com.samourai.whirlpool.server.utils;
+
+import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.RANDOM_PORT;
+
+import com.samourai.whirlpool.server.integration.AbstractIntegrationTest;
+import java.lang.invoke.MethodHandles;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.List;
+import org.bouncycastle.util.encoders.Hex;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+
+@SpringBootTest(webEnvironment = RANDOM_PORT)
+public class TxidMapTest extends AbstractIntegrationTest {
+  private static final Logger log = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+  private SecureRandom random = new SecureRandom();
+
+  @Test
+  public void putContains() throws Exception {
+    TxidMap txidMap = new TxidMap();
+    List<String> txids = new ArrayList<>();
+    for (int i = 0; i < 5000; i++) { // forces several resizes
+      String txid = generateTxid();
+      txids.add(txid);
+      txidMap.put(txid, i);
+    }
+    Assertions.assertEquals(5000, txidMap.getSize());
+    for (int i = 0; i < txids.size(); i++) {
+      String txid = txids.get(i);
+      Assertions.assertTrue(txidMap.contains(txid));
+      Assertions.assertTrue(txidMap.contains(txid, i));
+      Assertions.assertTrue(txidMap.contains(txid.toUpperCase(), i));
+      Assertions.assertFalse(txidMap.contains(txid, i + 1));
+    }
+    Assertions.assertFalse(txidMap.contains(generateTxid()));
+
+    // update value
+    txidMap.put(txids.get(0), 42);
+    Assertions.assertEquals(5000, txidMap.getSize());
+    Assertions.assertTrue(txidMap.contains(txids.get(0), 42));
+
+    // non-hex keys
+    txidMap.put("foo", 1);
+    Assertions.assertTrue(txidMap.contains("foo", 1));
+    Assertions.assertFalse(txidMap.contains("bar"));
+
+    txidMap.clear();
+    Assertions.assertEquals(0, txidMap.getSize());
+    Assertions.assertFalse(txidMap.contains(txids.get(0)));
+  }
+
+  @Test
+  public void remove() throws Exception {
+    TxidMap txidMap = new TxidMap();
+    List<String> keys = new ArrayList<>();
+    for (int i = 0; i < 2000; i++) {
+      String key = "bc1q" + generateTxid().substring(0, 38); // hashed keys
+      keys.add(key);
+      txidMap.put(key, 0);
+    }
+
+    // remove every other key
+    for (int i = 0; i < keys.size(); i += 2) {
+      Assertions.assertTrue(txidMap.remove(keys.get(i)));
+    }
+    Assertions.assertFalse(txidMap.remove(keys.get(0))); // already removed
+    Assertions.assertEquals(1000, txidMap.getSize());
+
+    // remaining keys still reachable after backward-shift
+    for (int i = 0; i < keys.size(); i++) {
+      Assertions.assertEquals(i % 2 == 1, txidMap.contains(keys.get(i)));
+    }
+  }
+
+  private String generateTxid() {
+    byte[] bytes = new byte[32];
+    random.nextBytes(bytes);
+    return Hex.toHexString(bytes);
+  }
+}
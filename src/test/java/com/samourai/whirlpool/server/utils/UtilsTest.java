@@ -112,4 +112,22 @@ public class UtilsTest extends AbstractIntegrationTest {
     String signingAddress = Utils.computeSigningAddress(signingWallet, params).getAddressString();
     Assertions.assertEquals("mi42XN9J3eLdZae4tjQnJnVkCcNDRuAtz4", signingAddress);
   }
+
+  @Test
+  public void compress() throws Exception {
+    byte[] data =
+        Hex.decode(
+            "0100000001b9c0e6f5e0f1b3d0c2d1a1b1c1d1e1f101112131415161718191a1b1c1d1e1f000000000"
+                + "ffffffff0100e1f505000000001600140000000000000000000000000000000000000000");
+    byte[] compressed = Utils.compress(data);
+    Assertions.assertArrayEquals(data, Utils.decompress(compressed));
+
+    // empty
+    Assertions.assertArrayEquals(new byte[0], Utils.decompress(Utils.compress(new byte[0])));
+
+    // truncated
+    byte[] truncated = new byte[compressed.length / 2];
+    System.arraycopy(compressed, 0, truncated, 0, truncated.length);
+    Assertions.assertThrows(Exception.class, () -> Utils.decompress(truncated));
+  }
 }